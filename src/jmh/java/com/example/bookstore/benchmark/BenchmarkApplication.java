@@ -0,0 +1,25 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.BookStoreApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against the embedded H2 database from the test resources, for benchmarks
+ * that need the real Spring wiring (repositories, transactions, security).
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(BookStoreApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.show-sql=false")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.CursorPageDTO;
+import com.example.bookstore.dto.OffsetPageDTO;
+import com.example.bookstore.dto.book.FacetsDTO;
+import com.example.bookstore.index.BookSearchIndex;
+import com.example.bookstore.index.ColumnarCatalog;
+import com.example.bookstore.index.FacetIndex;
+import com.example.bookstore.index.PriceIndex;
+import com.example.bookstore.repository.BookSummary;
+import com.example.bookstore.service.BookFileFormat;
+import com.example.bookstore.service.BookImportService;
+import com.example.bookstore.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search and sort service methods behind the list endpoints, against an embedded H2 catalog of
+ * `catalogSize` books. `index=false` starts without the in-memory indexes, so every call goes to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogQueryBenchmark {
+
+    @Param({"10000", "100000"})
+    int catalogSize;
+
+    @Param({"true", "false"})
+    boolean index;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        context = BenchmarkApplication.start("app.index.enabled=" + index);
+        bookService = context.getBean(BookService.class);
+        if (index) {
+            var searchIndex = context.getBean(BookSearchIndex.class);
+            var priceIndex = context.getBean(PriceIndex.class);
+            var facetIndex = context.getBean(FacetIndex.class);
+            var columnarCatalog = context.getBean(ColumnarCatalog.class);
+            while (!searchIndex.isReady() || !priceIndex.isReady() || !facetIndex.isReady() || !columnarCatalog.isReady()) {
+                Thread.sleep(10);
+            }
+        }
+
+        var feed = new StringBuilder();
+        for (int i = 0; i < catalogSize; i++) {
+            feed.append("{\"name\":\"Book ").append(i)
+                    .append("\",\"author\":\"Author ").append(i % 500)
+                    .append("\",\"description\":\"Description of book ").append(i)
+                    .append("\",\"price\":").append(1.0 + i % 1000 / 10.0).append("}\n");
+        }
+        context.getBean(BookImportService.class).importBooks(BookFileFormat.NDJSON,
+                new ByteArrayInputStream(feed.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummary> searchByName() {
+        return bookService.findBooksByNameContaining("ok 12", null, null);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummary> searchByAuthor() {
+        return bookService.findBooksByAuthorContaining("Author 42", null, null);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummary> sortByPriceAsc() {
+        return bookService.findBooksByOrderByPriceAsc(null, null);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookSummary> sortByPriceDesc() {
+        return bookService.findBooksByOrderByPriceDesc(null, null);
+    }
+
+    @Benchmark
+    public OffsetPageDTO<BookSummary> priceBetween() {
+        return bookService.findBooksByPriceBetween(20.0, 30.0, 100, null);
+    }
+
+    @Benchmark
+    public FacetsDTO catalogFacets() {
+        return bookService.getFacets(null, null, null, null, null);
+    }
+
+    @Benchmark
+    public FacetsDTO searchFacets() {
+        return bookService.getFacets("ok 12", null, null, null, null);
+    }
+
+    @Benchmark
+    public FacetsDTO priceRangeFacets() {
+        return bookService.getFacets(null, "Author 4", 20.0, 60.0, null);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.book.FacetsDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.index.CatalogFilter;
+import com.example.bookstore.index.ColumnarCatalog;
+import com.example.bookstore.index.FacetCounts;
+import com.example.bookstore.index.PriceBuckets;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A filtered facet scan over `catalogSize` books held as entities, the way a scan over cached books would run,
+ * against the same scan over the columnar catalog, sequential and split over the common fork/join pool. The two
+ * `load` benchmarks build each representation; with `-prof gc`, the bytes `loadEntities` allocates are the heap the
+ * entities keep, while those of `loadColumnar` also count the arrays outgrown while loading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarCatalogBenchmark {
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    // A name search within a price range, or an author search within one
+    @Param({"name", "author"})
+    String search;
+
+    private final PriceBuckets priceBuckets = new PriceBuckets(new double[]{10, 20, 50, 100});
+    private CatalogFilter filter;
+    private List<Book> books;
+    private ColumnarCatalog sequential;
+    private ColumnarCatalog parallel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = search.equals("name")
+                ? new CatalogFilter("ok 1", null, 20.0, 60.0)
+                : new CatalogFilter(null, "Author 4", 20.0, 60.0);
+        books = entities();
+        sequential = columnar(Integer.MAX_VALUE);
+        parallel = columnar(1);
+    }
+
+    private List<Book> entities() {
+        var entities = new ArrayList<Book>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            entities.add(Book.builder().id(UUID.randomUUID()).name("Book " + i).author("Author " + i % 500)
+                    .price(1.0 + i % 1000 / 10.0).version(0L).build());
+        }
+        return entities;
+    }
+
+    private ColumnarCatalog columnar(int parallelThreshold) {
+        var catalog = new ColumnarCatalog(priceBuckets, parallelThreshold);
+        books.forEach(catalog::load);
+        catalog.markReady();
+        return catalog;
+    }
+
+    @Benchmark
+    public FacetsDTO entityScan() {
+        var counts = new FacetCounts(priceBuckets);
+        for (var book : books) {
+            if (filter.authorContains() != null && !book.getAuthor().contains(filter.authorContains())) continue;
+            if (book.getPrice() == null || book.getPrice() < filter.minPrice() || book.getPrice() > filter.maxPrice()) continue;
+            if (filter.nameContains() != null && !book.getName().contains(filter.nameContains())) continue;
+            counts.add(book.getAuthor(), book.getPrice(), 1);
+        }
+        return counts.toDTO(20);
+    }
+
+    @Benchmark
+    public FacetsDTO columnarScan() {
+        return sequential.facets(filter, 20);
+    }
+
+    @Benchmark
+    public FacetsDTO columnarParallelScan() {
+        return parallel.facets(filter, 20);
+    }
+
+    @Benchmark
+    public List<Book> loadEntities() {
+        return entities();
+    }
+
+    @Benchmark
+    public ColumnarCatalog loadColumnar() {
+        return columnar(Integer.MAX_VALUE);
+    }
+}
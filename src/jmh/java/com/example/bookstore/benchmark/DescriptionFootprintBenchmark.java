@@ -0,0 +1,103 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.BookDescription;
+import com.example.bookstore.repository.BookSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * What a page of 20 books costs to serialize with their descriptions, as the list endpoints did, against the
+ * summaries they send now; what one book cache entry weighs as loaded with and without its description; and what
+ * serving one stored description costs, sent as stored or decompressed. Run with `-prof gc`: for the cache entry
+ * benchmarks the bytes allocated per operation are the heap the entry keeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DescriptionFootprintBenchmark {
+
+    @Param({"256", "4096"})
+    int descriptionLength;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<BookDTO> books;
+    private List<BookSummary> summaries;
+    private BookDescription gzipped;
+    private byte[] descriptionBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var words = "a tale of ink and paper, of readers and of the shelves that keep them ";
+        var text = words.repeat(descriptionLength / words.length() + 1).substring(0, descriptionLength);
+        books = new ArrayList<>();
+        summaries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            var book = new BookDTO();
+            book.setId(UUID.randomUUID());
+            book.setName("Book " + i);
+            book.setAuthor("Author " + i);
+            book.setDescription(text);
+            book.setPrice(1.0 + i);
+            books.add(book);
+            summaries.add(new BookSummary(book.getId(), book.getName(), book.getAuthor(), book.getPrice()));
+        }
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        descriptionBytes = bytes;
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        gzipped = new BookDescription(UUID.randomUUID(), BookDescription.GZIP, bytes.length, compressed.toByteArray());
+    }
+
+    @Benchmark
+    public byte[] pageWithDescriptions() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] pageOfSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public Book cachedBookWithDescription() {
+        return Book.builder().id(UUID.randomUUID()).name(new String("Book 1")).author(new String("Author 1"))
+                .description(new String(descriptionBytes, StandardCharsets.UTF_8)).price(10.0).version(0L).build();
+    }
+
+    @Benchmark
+    public Book cachedBook() {
+        return Book.builder().id(UUID.randomUUID()).name(new String("Book 1")).author(new String("Author 1"))
+                .price(10.0).version(0L).build();
+    }
+
+    @Benchmark
+    public byte[] descriptionAsStored() {
+        return gzipped.getContent();
+    }
+
+    @Benchmark
+    public byte[] descriptionDecompressed() throws IOException {
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContent()))) {
+            return in.readAllBytes();
+        }
+    }
+}
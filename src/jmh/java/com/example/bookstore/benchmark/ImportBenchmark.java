@@ -0,0 +1,96 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.book.ImportReportDTO;
+import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.service.BookFileFormat;
+import com.example.bookstore.service.BookImportService;
+import com.example.bookstore.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading a feed row by row through `BookService.saveBook` with the batched `BookImportService`.
+ * Every invocation loads `rows` books into an empty table; the score is the time for the whole feed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+// A single shot runs the per-row path 5000 times, and it keeps getting faster for about ten of them
+@Warmup(iterations = 12)
+@Measurement(iterations = 8)
+@Fork(1)
+public class ImportBenchmark {
+
+    // Ids per deleteByIds call, within app.books.maxBatchSize
+    private static final int DELETE_CHUNK = 1000;
+
+    @Param({"5000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private BookImportService bookImportService;
+    private BookRepository bookRepository;
+    private List<InsertBookDTO> books;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        bookService = context.getBean(BookService.class);
+        bookImportService = context.getBean(BookImportService.class);
+        bookRepository = context.getBean(BookRepository.class);
+
+        books = new ArrayList<>(rows);
+        var feed = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            var book = new InsertBookDTO();
+            book.setName("Book " + i);
+            book.setAuthor("Author " + (i % 500));
+            book.setDescription("Description of book " + i);
+            book.setPrice(1.0 + i % 100);
+            books.add(book);
+            feed.append("{\"name\":\"").append(book.getName())
+                    .append("\",\"author\":\"").append(book.getAuthor())
+                    .append("\",\"description\":\"").append(book.getDescription())
+                    .append("\",\"price\":").append(book.getPrice()).append("}\n");
+        }
+        ndjson = feed.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Deleting through the service, which also deletes the descriptions and publishes the event that empties the
+    // in-memory indexes and caches, so every invocation starts from the same state
+    @TearDown(Level.Invocation)
+    public void deleteAll() {
+        var ids = bookRepository.findAll().stream().map(Book::getId).toList();
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+            bookService.deleteByIds(ids.subList(from, Math.min(from + DELETE_CHUNK, ids.size())));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void perRowSave() {
+        for (var book : books) {
+            bookService.saveBook(book);
+        }
+    }
+
+    @Benchmark
+    public ImportReportDTO batchedImport() throws IOException {
+        return bookImportService.importBooks(BookFileFormat.NDJSON, new ByteArrayInputStream(ndjson));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.auth.ResponseTokenDTO;
+import com.example.bookstore.entity.Role;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.mapper.DtoMapperImpl;
+import com.example.bookstore.service.JWTTokenService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling done on every authenticated request. `cacheSize=0` disables the verified-token cache,
+ * so every call pays the full HMAC-512 verification; the default size measures the cached path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenBenchmark {
+    private static final String SECRET = "EG9UhnsZ+veiD/qNenH4qXcj+5mKOBNyYKwZ2f3P/gd2F5QcFM3+jZULVlTvyexWmKhKUJ2W2CDC7fZQe0I0GA==";
+
+    @Param({"0", "10000"})
+    long cacheSize;
+
+    private JWTTokenService jwtTokenService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenService = new JWTTokenService(SECRET, 86_400_000, cacheSize, new DtoMapperImpl());
+        user = User.builder().id(UUID.randomUUID()).username("user@example.com").password("hash").role(Role.USER).build();
+        token = jwtTokenService.generateTokens(user).getToken();
+    }
+
+    // The two calls the request path made before verify() existed
+    @Benchmark
+    public String validateAndGetSubject() {
+        return jwtTokenService.validate(token) ? jwtTokenService.getSubject(token) : null;
+    }
+
+    @Benchmark
+    public Object verify() {
+        return jwtTokenService.verify(token).orElse(null);
+    }
+
+    @Benchmark
+    public ResponseTokenDTO generateTokens() {
+        return jwtTokenService.generateTokens(user);
+    }
+}
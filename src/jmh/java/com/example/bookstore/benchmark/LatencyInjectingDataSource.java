@@ -0,0 +1,55 @@
+package com.example.bookstore.benchmark;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Adds a fixed delay before every statement execution, standing in for the network round trip to a remote
+ * database that the embedded H2 does not have. Enabled by `bench.dbLatencyMs` greater than zero.
+ */
+@Configuration
+public class LatencyInjectingDataSource {
+
+    @Bean
+    static BeanPostProcessor latencyInjectingDataSourcePostProcessor(@Value("${bench.dbLatencyMs:0}") long latencyMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (latencyMs <= 0 || !(bean instanceof DataSource dataSource)) return bean;
+                return wrap(DataSource.class, dataSource, latencyMs);
+            }
+        };
+    }
+
+    // Proxying the data source, the connections it hands out and their statements
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, T target, long latencyMs) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                Thread.sleep(latencyMs);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            var returnType = method.getReturnType();
+            if (result instanceof Connection connection && returnType == Connection.class) {
+                return wrap(Connection.class, connection, latencyMs);
+            }
+            if (result instanceof Statement && Statement.class.isAssignableFrom(returnType)) {
+                return wrap((Class<Object>) returnType, result, latencyMs);
+            }
+            return result;
+        });
+    }
+}
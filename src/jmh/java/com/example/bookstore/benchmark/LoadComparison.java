@@ -0,0 +1,129 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.BookStoreApplication;
+import com.example.bookstore.dto.auth.RegisterRequestDTO;
+import com.example.bookstore.service.AuthService;
+import com.example.bookstore.service.BookFileFormat;
+import com.example.bookstore.service.BookImportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of an authenticated, database-backed endpoint with the default platform-thread Tomcat
+ * and with `spring.threads.virtual.enabled=true`. Every statement is delayed by `latencyMs` to model a remote
+ * database, and the connection pool is sized above Tomcat's 200 worker threads so that the threads, not the
+ * pool, are the limit being compared.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests test-compile exec:exec -Dexec.executable=${java.home}/bin/java
+ * -Dexec.classpathScope=test -Dexec.args="-cp %classpath com.example.bookstore.benchmark.LoadComparison 1000 20 10"};
+ * the arguments are concurrency, seconds per mode and database latency in milliseconds.
+ */
+public final class LoadComparison {
+
+    private LoadComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int latencyMs = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        System.out.printf("concurrency=%d, duration=%ds, dbLatency=%dms%n", concurrency, seconds, latencyMs);
+        System.out.printf("%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (var virtual : List.of(false, true)) {
+            var result = run(virtual, concurrency, seconds, latencyMs);
+            System.out.printf("%-10s %12.0f %10.1f %10.1f %10.1f %8d%n", virtual ? "virtual" : "platform",
+                    result.throughput, result.p50, result.p99, result.max, result.errors);
+        }
+    }
+
+    private record Result(double throughput, double p50, double p99, double max, long errors) {
+    }
+
+    private static Result run(boolean virtual, int concurrency, int seconds, int latencyMs) throws Exception {
+        var context = new SpringApplicationBuilder(BookStoreApplication.class, LatencyInjectingDataSource.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.show-sql=false",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "spring.datasource.hikari.maximum-pool-size=" + (concurrency + 10),
+                        "bench.dbLatencyMs=" + latencyMs)
+                .run();
+        try {
+            var feed = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                feed.append("{\"name\":\"Book ").append(i).append("\",\"author\":\"Author ").append(i % 50)
+                        .append("\",\"description\":\"Description\",\"price\":").append(1 + i % 100).append("}\n");
+            }
+            context.getBean(BookImportService.class).importBooks(BookFileFormat.NDJSON,
+                    new ByteArrayInputStream(feed.toString().getBytes(StandardCharsets.UTF_8)));
+            var token = context.getBean(AuthService.class)
+                    .register(new RegisterRequestDTO("load-" + virtual, "password")).getToken();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books/getAllBooks?size=20"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+
+            drive(request, concurrency, Math.max(2, seconds / 4));
+            return drive(request, concurrency, seconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    // Running concurrency clients, each sending its next request as soon as the previous one completed
+    private static Result drive(HttpRequest request, int concurrency, int seconds) throws Exception {
+        var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        var errors = new AtomicLong();
+        var perClient = new ArrayList<long[]>();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<long[]>>();
+            for (int c = 0; c < concurrency; c++) {
+                futures.add(clients.submit(() -> {
+                    var latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            for (var future : futures) {
+                perClient.add(future.get());
+            }
+        }
+        var all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) return new Result(0, 0, 0, 0, errors.get());
+        return new Result(all.length / (double) seconds,
+                all[(int) (all.length * 0.50)] / 1e6,
+                all[Math.min(all.length - 1, (int) (all.length * 0.99))] / 1e6,
+                all[all.length - 1] / 1e6,
+                errors.get());
+    }
+}
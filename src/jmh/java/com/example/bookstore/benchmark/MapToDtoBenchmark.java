@@ -0,0 +1,52 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `BookService.mapToDTO` applied to a whole result list, as the list endpoints do, for several list sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapToDtoBenchmark {
+
+    @Param({"1", "20", "100", "1000"})
+    int listSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("app.index.enabled=false");
+        bookService = context.getBean(BookService.class);
+        books = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            books.add(Book.builder().id(UUID.randomUUID()).name("Book " + i).author("Author " + i % 50)
+                    .description("Description of book " + i).price(1.0 + i % 100).build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDTO> mapList() {
+        return books.stream().map(bookService::mapToDTO).toList();
+    }
+}
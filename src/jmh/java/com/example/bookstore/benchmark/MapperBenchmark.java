@@ -0,0 +1,76 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.UserDTO;
+import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.Role;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.mapper.DtoMapper;
+import com.example.bookstore.mapper.DtoMapperImpl;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one mapped object with the reflective `ModelMapper` against `DtoMapperImpl`.
+ * Run with `-prof gc` to see the allocated bytes per operation (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final DtoMapper dtoMapper = new DtoMapperImpl();
+    private Book book;
+    private InsertBookDTO insertBookDTO;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        book = Book.builder().id(UUID.randomUUID()).name("Java Basic").author("Herbert Schildt")
+                .description("Java for beginners").price(35.00).build();
+        insertBookDTO = new InsertBookDTO();
+        insertBookDTO.setName("Java Advanced");
+        insertBookDTO.setAuthor("Bruce Eckel");
+        insertBookDTO.setDescription("Java for advanced programmers");
+        insertBookDTO.setPrice(45.00);
+        user = User.builder().id(UUID.randomUUID()).username("user").password("hash").role(Role.USER).build();
+    }
+
+    @Benchmark
+    public BookDTO bookToDTOModelMapper() {
+        return modelMapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO bookToDTOGenerated() {
+        return dtoMapper.toDTO(book);
+    }
+
+    @Benchmark
+    public Book insertBookToEntityModelMapper() {
+        return modelMapper.map(insertBookDTO, Book.class);
+    }
+
+    @Benchmark
+    public Book insertBookToEntityGenerated() {
+        return dtoMapper.toEntity(insertBookDTO);
+    }
+
+    @Benchmark
+    public UserDTO userToDTOModelMapper() {
+        return modelMapper.map(user, UserDTO.class);
+    }
+
+    @Benchmark
+    public UserDTO userToDTOGenerated() {
+        return dtoMapper.toDTO(user);
+    }
+}
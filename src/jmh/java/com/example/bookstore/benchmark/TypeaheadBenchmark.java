@@ -0,0 +1,75 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.index.Suggestion;
+import com.example.bookstore.index.TypeaheadIndex;
+import com.example.bookstore.service.BookFileFormat;
+import com.example.bookstore.service.BookImportService;
+import com.example.bookstore.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `BookService.suggest` for a short and a longer prefix, as typed into the search box, against an embedded H2
+ * catalog of `catalogSize` books. `index=false` answers from the grouped fallback queries instead of the trie.
+ * Run with `-prof gc` to see what a lookup allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeaheadBenchmark {
+
+    @Param({"10000", "100000"})
+    int catalogSize;
+
+    @Param({"true", "false"})
+    boolean index;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        context = BenchmarkApplication.start("app.index.enabled=" + index);
+        bookService = context.getBean(BookService.class);
+        if (index) {
+            var typeaheadIndex = context.getBean(TypeaheadIndex.class);
+            while (!typeaheadIndex.isReady()) {
+                Thread.sleep(10);
+            }
+        }
+
+        var feed = new StringBuilder();
+        for (int i = 0; i < catalogSize; i++) {
+            feed.append("{\"name\":\"Book ").append(i)
+                    .append("\",\"author\":\"Author ").append(i % 500)
+                    .append("\",\"description\":\"Description of book ").append(i)
+                    .append("\",\"price\":").append(1.0 + i % 1000 / 10.0).append("}\n");
+        }
+        context.getBean(BookImportService.class).importBooks(BookFileFormat.NDJSON,
+                new ByteArrayInputStream(feed.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Suggestion> shortPrefix() {
+        return bookService.suggest("b", null);
+    }
+
+    @Benchmark
+    public List<Suggestion> longerPrefix() {
+        return bookService.suggest("author 4", null);
+    }
+}
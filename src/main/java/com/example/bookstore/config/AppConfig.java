@@ -1,7 +1,9 @@
 package com.example.bookstore.config;
 
-import com.example.bookstore.repository.UserRepository;
+import com.example.bookstore.service.BoundedPasswordEncoder;
+import com.example.bookstore.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,23 +22,25 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class AppConfig {
 
-    private final UserRepository userRepository;
+    private final UserService userService;
 
     @Autowired
-    public AppConfig(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public AppConfig(UserService userService) {
+        this.userService = userService;
     }
 
-    // Defining a PasswordEncoder bean using BCryptPasswordEncoder
+    // Defining a PasswordEncoder bean using BCryptPasswordEncoder, run on a bounded pool of hashing threads
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.passwordHashing.bcryptStrength:10}") int strength,
+                                                  @Value("${app.passwordHashing.threads:2}") int threads,
+                                                  @Value("${app.passwordHashing.queueCapacity:64}") int queueCapacity) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity);
     }
 
-    // Defining a UserDetailsService bean that loads user by username
+    // Defining a UserDetailsService bean that loads user by username through the cached UserService
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username).orElseThrow();
+        return userService::getUserByUsername;
     }
 
     // Defining an AuthenticationProvider bean that uses UserDetailsService and PasswordEncoder
@@ -46,6 +50,7 @@ public class AppConfig {
         var provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userService);
         return provider;
     }
 
@@ -1,6 +1,7 @@
 package com.example.bookstore.config;
 
-import org.modelmapper.ModelMapper;
+import com.example.bookstore.mapper.DtoMapper;
+import com.example.bookstore.mapper.DtoMapperImpl;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
@@ -11,7 +12,7 @@ import org.springframework.stereotype.Component;
 @Component
 public class BeansConfig {
     @Bean
-    ModelMapper modelMapper() {
-        return new ModelMapper();
+    DtoMapper dtoMapper() {
+        return new DtoMapperImpl();
     }
 }
@@ -0,0 +1,62 @@
+package com.example.bookstore.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The `ReplicaDataSourceConfig` class replaces the auto-configured data source once `app.datasource.replicas`
+ * lists replica JDBC URLs: the primary pool keeps the `spring.datasource.*` settings, each replica gets a pool of
+ * its own with the same credentials, and the application data source routes between them.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    // Defining the primary pool exactly as Spring Boot would, including the spring.datasource.hikari settings
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Defining the routing data source over one pool per replica URL; a dead replica fails fast and is skipped
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             @Value("${app.datasource.replicas}") List<String> urls,
+                                                             @Value("${app.datasource.replicaPoolSize:10}") int poolSize,
+                                                             @Value("${app.datasource.replicaConnectionTimeoutMs:1000}") long connectionTimeoutMs,
+                                                             @Value("${app.datasource.readYourWritesMs:2000}") long readYourWritesMs,
+                                                             @Value("${app.datasource.replicaRetryMs:10000}") long retryMs) {
+        var replicas = new ArrayList<DataSource>(urls.size());
+        for (var url : urls) {
+            var replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url.trim()).build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeoutMs);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesMs, retryMs);
+    }
+
+    // Defining the data source used by JPA, Flyway and JDBC: connections are only routed at their first statement
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.bookstore.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The `ReplicaRoutingDataSource` class sends connections of read-only transactions to the replicas, round-robin,
+ * and everything else to the primary. It must sit behind a `LazyConnectionDataSourceProxy`: the transaction
+ * manager asks for a connection before the read-only flag of the transaction is published, the lazy proxy only
+ * fetches one at the first statement.
+ * <p>
+ * A replica whose connection attempt fails is skipped for `retryMs`, and a read falls back to the primary when no
+ * replica is usable. For `readYourWritesMs` after any write transaction commits, read-only transactions go to the
+ * primary too. The guard is global rather than per user: the book cache and the listing cache are shared, and a
+ * load that saw a lagging replica right after a write would keep serving the old row to everyone.
+ * <p>
+ * The replica pools are owned by this data source and closed with it; the primary is not.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, DisposableBean {
+    public static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long readYourWritesNanos;
+    private final long retryNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    // Per replica, the System.nanoTime() before which it is not tried again; 0 while healthy
+    private final AtomicLongArray excludedUntil;
+    private volatile long lastWriteNanos;
+    private volatile boolean written;
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong replicaReads = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long readYourWritesMs, long retryMs) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMs);
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMs);
+        this.excludedUntil = new AtomicLongArray(replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lastWriteNanos = System.nanoTime();
+                        written = true;
+                    }
+                });
+            }
+            return primary.getConnection();
+        }
+        if (!replicas.isEmpty() && !withinReadYourWrites()) {
+            var connection = replicaConnection();
+            if (connection != null) {
+                replicaReads.incrementAndGet();
+                return connection;
+            }
+        }
+        primaryReads.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    // Explicit credentials are the primary's: the replica pools connect with their own, so such a connection is
+    // never routed to a replica, and the primary decides whether it supports them at all
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private boolean withinReadYourWrites() {
+        return written && System.nanoTime() - lastWriteNanos < readYourWritesNanos;
+    }
+
+    // Trying each replica once, starting at the next one in turn; null when none answers
+    private Connection replicaConnection() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = (start + i) % replicas.size();
+            long until = excludedUntil.get(replica);
+            if (until != 0 && System.nanoTime() - until < 0) continue;
+            try {
+                var connection = replicas.get(replica).getConnection();
+                excludedUntil.set(replica, 0);
+                return connection;
+            } catch (SQLException e) {
+                logger.warn("Replica {} is unavailable, excluding it for {} ms: {}", replica,
+                        TimeUnit.NANOSECONDS.toMillis(retryNanos), e.getMessage());
+                excludedUntil.set(replica, System.nanoTime() + retryNanos);
+            }
+        }
+        return null;
+    }
+
+    // Replicas currently not excluded after a failed connection attempt
+    public int healthyReplicas() {
+        int healthy = 0;
+        for (int i = 0; i < replicas.size(); i++) {
+            long until = excludedUntil.get(i);
+            if (until == 0 || System.nanoTime() - until >= 0) healthy++;
+        }
+        return healthy;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replicas.healthy", this, ReplicaRoutingDataSource::healthyReplicas)
+                .description("Replicas currently used for read-only transactions")
+                .register(registry);
+        FunctionCounter.builder("datasource.reads", replicaReads, AtomicLong::get)
+                .tag("target", "replica")
+                .description("Read-only transactions by the database that served them")
+                .register(registry);
+        FunctionCounter.builder("datasource.reads", primaryReads, AtomicLong::get)
+                .tag("target", "primary")
+                .description("Read-only transactions by the database that served them")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (var replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+}
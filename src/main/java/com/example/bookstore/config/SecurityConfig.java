@@ -7,8 +7,10 @@ import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.servers.Server;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -60,6 +62,17 @@ public class SecurityConfig {
         auth.userDetailsService(userService).passwordEncoder(passwordEncoder);
     }
 
+    // Actuator endpoints are only served on the management port, which is kept off the public network.
+    // A chain of their own also keeps the MVC matchers below away from the management servlet
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http) throws Exception {
+        http.securityMatcher(EndpointRequest.toAnyEndpoint())
+                .authorizeHttpRequests(ahr -> ahr.anyRequest().permitAll())
+                .csrf(AbstractHttpConfigurer::disable);
+        return http.build();
+    }
+
     // Security filter chain for configuring HTTP security, specifying which endpoints are secure
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -1,22 +1,51 @@
 package com.example.bookstore.controller;
 
+import com.example.bookstore.dto.CursorPageDTO;
+import com.example.bookstore.dto.OffsetPageDTO;
+import com.example.bookstore.dto.book.BookBatchDTO;
 import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.dto.book.BookIdsDTO;
+import com.example.bookstore.dto.book.BookPatchDTO;
+import com.example.bookstore.dto.book.DeleteReportDTO;
+import com.example.bookstore.dto.book.FacetsDTO;
+import com.example.bookstore.dto.book.ImportReportDTO;
 import com.example.bookstore.dto.book.InsertBookDTO;
-import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.BookDescription;
+import com.example.bookstore.index.Suggestion;
+import com.example.bookstore.repository.BookSummary;
+import com.example.bookstore.service.BookDescriptionStore;
+import com.example.bookstore.service.BookExportService;
+import com.example.bookstore.service.BookFileFormat;
+import com.example.bookstore.service.BookImportService;
 import com.example.bookstore.service.BookService;
+import com.example.bookstore.service.CatalogVersion;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * @author oksanapoliakova on 12.03.2024
@@ -28,10 +57,20 @@ import java.util.UUID;
 @Validated
 public class BookController {
     private final BookService bookService;
+    private final BookExportService bookExportService;
+    private final BookImportService bookImportService;
+    private final CatalogVersion catalogVersion;
+    private final ListingResponseCache listingResponseCache;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookExportService bookExportService,
+                          BookImportService bookImportService, CatalogVersion catalogVersion,
+                          ListingResponseCache listingResponseCache) {
         this.bookService = bookService;
+        this.bookExportService = bookExportService;
+        this.bookImportService = bookImportService;
+        this.catalogVersion = catalogVersion;
+        this.listingResponseCache = listingResponseCache;
     }
 
     @PostMapping(value = "/add")
@@ -41,34 +80,116 @@ public class BookController {
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Import many books from an NDJSON or CSV body")
+    public ResponseEntity<ImportReportDTO> importBooks(@RequestParam(defaultValue = "ndjson") String format,
+                                                       InputStream body) throws IOException {
+        var report = bookImportService.importBooks(BookFileFormat.of(format), body);
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
     @GetMapping("/{bookId}")
     @Operation(summary = "Get a book by ID", security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<BookDTO> getBookById(@PathVariable("bookId") UUID bookId) {
-        var book = bookService.getBookById(bookId);
-        var retrievedBook = bookService.mapToDTO(book.get());
-        return new ResponseEntity<>(retrievedBook, HttpStatus.OK);
+    public ResponseEntity<BookDTO> getBookById(@PathVariable("bookId") UUID bookId, WebRequest request) {
+        var book = bookService.getBookById(bookId).get();
+        if (book.getVersion() == null) {
+            return new ResponseEntity<>(bookService.mapToDTO(book), HttpStatus.OK);
+        }
+        var etag = "\"" + book.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(bookService.mapToDTO(book));
+    }
+
+    @GetMapping("/{bookId}/description")
+    @Operation(summary = "Get the description of a book as plain text", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<Resource> getBookDescription(@PathVariable("bookId") UUID bookId, WebRequest request) throws IOException {
+        var description = bookService.getDescription(bookId)
+                .orElseThrow(() -> new EntityNotFoundException("Book has no description: " + bookId));
+        var builder = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        // A gzipped description is sent as stored to clients that accept gzip, and decompressed while it is
+        // written to the others, so a large text is never materialized as a String
+        var acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (BookDescription.GZIP.equals(description.getEncoding()) && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(new ByteArrayResource(description.getContent()));
+        }
+        return builder.contentLength(description.getOriginalSize())
+                .body(new InputStreamResource(BookDescriptionStore.open(description)));
+    }
+
+    @PostMapping("/byIds")
+    @Operation(summary = "Get many books by ID in one call", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<BookBatchDTO<BookDTO>> getBooksByIds(@Valid @RequestBody BookIdsDTO bookIdsDTO) {
+        var books = bookService.getBooksByIds(bookIdsDTO.getIds());
+        return new ResponseEntity<>(new BookBatchDTO<>(bookService.mapToDTOs(books.getBooks()), books.getMissingIds()),
+                HttpStatus.OK);
     }
 
     @GetMapping("/getAllBooks")
-    @Operation(summary = "Get all books")
-    public ResponseEntity<List<BookDTO>> getAllBooks() {
-        var books = bookService.getAllBooks();
-        var allBooks = books.stream().map(bookService::mapToDTO).toList();
-        return new ResponseEntity<>(allBooks, HttpStatus.OK);
+    @Operation(summary = "Get all books, one page at a time")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CursorPageDTO.class)))
+    public ResponseEntity<byte[]> getAllBooks(@RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer size,
+                                              WebRequest request) {
+        return cachedListing("getAllBooks?cursor=" + cursor + "&size=" + size, request,
+                () -> bookService.getAllBooks(cursor, size));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export the whole catalog as NDJSON or CSV")
+    public void exportBooks(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        var exportFormat = BookFileFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books." + exportFormat.getExtension() + "\"");
+        bookExportService.export(exportFormat, response.getOutputStream());
     }
 
     @PutMapping("/update/{bookId}")
     @Operation(summary = "Update a book by ID")
-    public ResponseEntity<BookDTO> updateBookById(@PathVariable("bookId") UUID bookId, @Valid InsertBookDTO insertBookDTO) {
-        var updatedBook = bookService.mapToDTO(bookService.updateBookById(bookId, insertBookDTO).get());
-        return new ResponseEntity<>(updatedBook, HttpStatus.OK);
+    public ResponseEntity<BookDTO> updateBookById(@PathVariable("bookId") UUID bookId, @Valid InsertBookDTO insertBookDTO,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var updatedBook = bookService.mapToDTO(bookService.updateBookById(bookId, insertBookDTO, version(ifMatch)).get());
+        return ResponseEntity.ok().eTag("\"" + updatedBook.getVersion() + "\"").body(updatedBook);
+    }
+
+    @PatchMapping("/update")
+    @Operation(summary = "Update many books at once; all updates are applied or none")
+    public ResponseEntity<List<BookDTO>> patchBooks(@RequestBody List<@Valid BookPatchDTO> patches) {
+        var updatedBooks = bookService.mapToDTOs(bookService.patchBooks(patches));
+        return new ResponseEntity<>(updatedBooks, HttpStatus.OK);
     }
 
     @GetMapping("/searchBooksByName")
     @Operation(summary = "Search books by name")
-    public ResponseEntity<List<Book>> searchBooksByName(@RequestParam String partOfName) {
-        var books = bookService.findBooksByNameContaining(partOfName);
-        return new ResponseEntity<>(books, HttpStatus.OK);
+    public ResponseEntity<CursorPageDTO<BookSummary>> searchBooksByName(@RequestParam String partOfName,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size,
+                                                                        WebRequest request) {
+        return listing(request, () -> bookService.findBooksByNameContaining(partOfName, cursor, size));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest book names and authors starting with the typed prefix, most popular first")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam String prefix,
+                                                    @RequestParam(required = false) Integer size) {
+        return new ResponseEntity<>(bookService.suggest(prefix, size), HttpStatus.OK);
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Get author counts, a price histogram and the price range of the catalog or of the books matching a name, author and price range")
+    public ResponseEntity<FacetsDTO> getFacets(@RequestParam(required = false) String partOfName,
+                                               @RequestParam(required = false) String author,
+                                               @RequestParam(required = false) Double minPrice,
+                                               @RequestParam(required = false) Double maxPrice,
+                                               @RequestParam(required = false) Integer authors,
+                                               WebRequest request) {
+        return listing(request, () -> bookService.getFacets(partOfName, author, minPrice, maxPrice, authors));
     }
 
     @GetMapping("/getBookByName")
@@ -80,23 +201,41 @@ public class BookController {
 
     @GetMapping("/searchByAuthor")
     @Operation(summary = "Search books by author")
-    public ResponseEntity<List<Book>> searchBooksByAuthor(@RequestParam String author) {
-        var books = bookService.findBooksByAuthorContaining(author);
-        return new ResponseEntity<>(books, HttpStatus.OK);
+    public ResponseEntity<CursorPageDTO<BookSummary>> searchBooksByAuthor(@RequestParam String author,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false) Integer size,
+                                                                          WebRequest request) {
+        return listing(request, () -> bookService.findBooksByAuthorContaining(author, cursor, size));
     }
 
     @GetMapping("/sortByPriceAsc")
     @Operation(summary = "Sort books by price (ascending)")
-    public ResponseEntity<List<Book>> sortBooksByPriceAsc() {
-        var sortedBooks = bookService.findBooksByOrderByPriceAsc();
-        return new ResponseEntity<>(sortedBooks, HttpStatus.OK);
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CursorPageDTO.class)))
+    public ResponseEntity<byte[]> sortBooksByPriceAsc(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size,
+                                                      WebRequest request) {
+        return cachedListing("sortByPriceAsc?cursor=" + cursor + "&size=" + size, request,
+                () -> bookService.findBooksByOrderByPriceAsc(cursor, size));
     }
 
     @GetMapping("/sortByPriceDesc")
     @Operation(summary = "Sort books by price (descending)")
-    public ResponseEntity<List<Book>> sortBooksByPriceDesc() {
-        var sortedBooks = bookService.findBooksByOrderByPriceDesc();
-        return new ResponseEntity<>(sortedBooks, HttpStatus.OK);
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CursorPageDTO.class)))
+    public ResponseEntity<byte[]> sortBooksByPriceDesc(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size,
+                                                       WebRequest request) {
+        return cachedListing("sortByPriceDesc?cursor=" + cursor + "&size=" + size, request,
+                () -> bookService.findBooksByOrderByPriceDesc(cursor, size));
+    }
+
+    @GetMapping("/priceBetween")
+    @Operation(summary = "Get books priced within a range, ordered by price")
+    public ResponseEntity<OffsetPageDTO<BookSummary>> priceBetween(@RequestParam double min,
+                                                                   @RequestParam double max,
+                                                                   @RequestParam(defaultValue = "0") int offset,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   WebRequest request) {
+        return listing(request, () -> bookService.findBooksByPriceBetween(min, max, offset, limit));
     }
 
     @DeleteMapping("/delete/{bookId}")
@@ -105,4 +244,62 @@ public class BookController {
         bookService.deleteById(bookId);
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @PostMapping("/deleteByIds")
+    @Operation(summary = "Delete many books by ID")
+    public ResponseEntity<DeleteReportDTO> deleteBooksByIds(@Valid @RequestBody BookIdsDTO bookIdsDTO) {
+        return new ResponseEntity<>(bookService.deleteByIds(bookIdsDTO.getIds()), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/deleteByAuthor")
+    @Operation(summary = "Delete every book of an author")
+    public ResponseEntity<DeleteReportDTO> deleteBooksByAuthor(@RequestParam String author) {
+        return new ResponseEntity<>(bookService.deleteByAuthor(author), HttpStatus.OK);
+    }
+
+    // Answering 304 when the client already holds this listing for the current catalog generation;
+    // the tag is read before the listing is built, so a concurrent write can only cause an extra 200
+    private <T> ResponseEntity<T> listing(WebRequest request, Supplier<T> listing) {
+        var etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(listing.get());
+    }
+
+    // Writing a listing from its cached encoded bytes, gzipped when the client accepts it.
+    // A client holding the current generation, or the one of the (stale) cached body, gets 304
+    private ResponseEntity<byte[]> cachedListing(String key, WebRequest request, Supplier<?> listing) {
+        var current = catalogVersion.etag();
+        var ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        // Checked by hand: checkNotModified would already put the current tag on a response that may be stale
+        if (ifNoneMatch != null && ifNoneMatch.contains(current)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+        }
+        var response = listingResponseCache.get(key, listing);
+        if (request.checkNotModified(response.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(response.etag()).build();
+        }
+        var builder = ResponseEntity.ok()
+                .eTag(response.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        var acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.gzip());
+        }
+        return builder.body(response.json());
+    }
+
+    // The version an If-Match header refers to: the ETag of GET /{bookId}, or null for none or "*"
+    private static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        var tag = ifMatch.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be the ETag of the book");
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.example.bookstore.controller;
+
+import com.example.bookstore.service.CatalogVersion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The `ListingResponseCache` class keeps the encoded bodies of listing responses: the JSON bytes, a gzipped
+ * copy and the ETag of the catalog generation they were built from. A hit is written out as is, with no
+ * query and no Jackson work.
+ * <p>
+ * A write bumps the `CatalogVersion`, which turns every entry stale at once. A stale entry is still served
+ * (stale-while-revalidate) while a single background rebuild per key replaces it; its ETag stays the one
+ * of its own generation, so clients revalidate again once the rebuild is in.
+ */
+@Component
+public class ListingResponseCache implements DisposableBean {
+    public static final Logger logger = LoggerFactory.getLogger(ListingResponseCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final CatalogVersion catalogVersion;
+    private final AsyncCache<String, EncodedResponse> responses;
+    private final ConcurrentHashMap<String, Boolean> refreshing = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor;
+
+    /**
+     * One encoded listing and the catalog generation it reflects.
+     */
+    public record EncodedResponse(long generation, String etag, byte[] json, byte[] gzip) {
+    }
+
+    @Autowired
+    public ListingResponseCache(ObjectMapper objectMapper, CatalogVersion catalogVersion,
+                                @Value("${app.responseCache.maxBytes:33554432}") long maxBytes,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.objectMapper = objectMapper;
+        this.catalogVersion = catalogVersion;
+        // Same executor choice as BookCache: a first build runs inline, or on its own virtual thread
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, EncodedResponse>weigher((key, response) -> response.json.length + response.gzip.length)
+                .executor(virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Runnable::run)
+                .buildAsync();
+        this.refreshExecutor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "listing-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // The cached response for the key, built on a miss; a stale one is returned while it is rebuilt
+    public EncodedResponse get(String key, Supplier<?> listing) {
+        EncodedResponse response;
+        try {
+            response = responses.get(key, (k, executor) ->
+                    CompletableFuture.supplyAsync(() -> encode(listing), executor)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        if (response.generation != catalogVersion.generation() && refreshing.putIfAbsent(key, Boolean.TRUE) == null) {
+            refreshExecutor.execute(() -> refresh(key, listing));
+        }
+        return response;
+    }
+
+    private void refresh(String key, Supplier<?> listing) {
+        try {
+            var fresh = encode(listing);
+            // A slower rebuild of an older generation never replaces a newer one
+            responses.synchronous().asMap().merge(key, fresh,
+                    (current, built) -> built.generation >= current.generation ? built : current);
+        } catch (RuntimeException e) {
+            logger.warn("Rebuilding the cached listing {} failed, serving the stale one: {}", key, e.getMessage());
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+
+    // The generation is read before the listing is built, so the entry is never newer than what it claims
+    private EncodedResponse encode(Supplier<?> listing) {
+        long generation = catalogVersion.generation();
+        var etag = catalogVersion.etag(generation);
+        try {
+            var json = objectMapper.writeValueAsBytes(listing.get());
+            var compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (var gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new EncodedResponse(generation, etag, json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Listing could not be serialized", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of an offset-paginated listing. `total` is the number of matching items across all pages.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OffsetPageDTO<T> {
+    private List<T> items;
+    private int offset;
+    private int size;
+    private long total;
+}
@@ -0,0 +1,16 @@
+package com.example.bookstore.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One author facet: an author and the number of books by them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuthorCountDTO {
+    private String author;
+    private long count;
+}
@@ -0,0 +1,27 @@
+package com.example.bookstore.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Result of a multi-get: the books found, in the order their ids were requested, and the requested ids
+ * that matched no book.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookBatchDTO<T> {
+    private List<T> books;
+    private List<UUID> missingIds;
+
+    // Mapping the books while keeping the missing ids
+    public <R> BookBatchDTO<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = books.stream().<R>map(mapper).toList();
+        return new BookBatchDTO<>(mapped, missingIds);
+    }
+}
@@ -23,4 +23,5 @@ public class BookDTO {
     @NotNull(message = "Price can't be null")
     @DecimalMin(value = "1.00", inclusive = true, message = "Price can't be lower than 1")
     private Double price;
+    private Long version;
 }
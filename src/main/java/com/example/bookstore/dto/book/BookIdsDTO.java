@@ -0,0 +1,20 @@
+package com.example.bookstore.dto.book;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Body of a multi-get: the ids of the books to fetch, in the order they should be returned.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookIdsDTO {
+    @NotNull(message = "Ids can't be null")
+    private List<UUID> ids;
+}
@@ -0,0 +1,27 @@
+package com.example.bookstore.dto.book;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One entry of a bulk PATCH: the fields to change (null keeps the stored value) and, optionally,
+ * the version the change was based on.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookPatchDTO {
+    @NotNull(message = "Id can't be null")
+    private UUID id;
+    private Long version;
+    private String name;
+    private String author;
+    private String description;
+    @DecimalMin(value = "1.00", inclusive = true, message = "Price can't be lower than 1")
+    private Double price;
+}
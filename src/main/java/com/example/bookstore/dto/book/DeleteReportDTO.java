@@ -0,0 +1,16 @@
+package com.example.bookstore.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a bulk delete: how many books were asked for or matched the criteria, and how many were deleted.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeleteReportDTO {
+    private int requested;
+    private int deleted;
+}
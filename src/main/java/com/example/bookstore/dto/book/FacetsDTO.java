@@ -0,0 +1,23 @@
+package com.example.bookstore.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Facets of the catalog or of a search result: the number of books, their price range, the authors with the most
+ * books (out of `distinctAuthors`) and a price histogram. Min and max are null when no book has a price.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetsDTO {
+    private long total;
+    private Double minPrice;
+    private Double maxPrice;
+    private int distinctAuthors;
+    private List<AuthorCountDTO> authors;
+    private List<PriceBucketDTO> priceBuckets;
+}
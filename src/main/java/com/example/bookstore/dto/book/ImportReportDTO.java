@@ -0,0 +1,32 @@
+package com.example.bookstore.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk import: totals plus one report per written batch.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReportDTO {
+    private long total;
+    private long imported;
+    private long rejected;
+    private List<BatchReportDTO> batches = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BatchReportDTO {
+        private int batch;
+        private long firstLine;
+        private long lastLine;
+        private int imported;
+        private List<String> errors = new ArrayList<>();
+    }
+}
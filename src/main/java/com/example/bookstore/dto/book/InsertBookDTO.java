@@ -1,5 +1,8 @@
 package com.example.bookstore.dto.book;
 
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 /**
@@ -8,8 +11,17 @@ import lombok.Data;
  */
 @Data
 public class InsertBookDTO {
+    // Validation group for books that must be complete, e.g. rows of a bulk import
+    public interface Complete {
+    }
+
+    @NotEmpty(message = "Book name can't be empty", groups = Complete.class)
     private String name;
+    @NotEmpty(message = "Author name can't be empty", groups = Complete.class)
     private String author;
+    @NotEmpty(message = "Description can't be empty", groups = Complete.class)
     private String description;
+    @NotNull(message = "Price can't be null", groups = Complete.class)
+    @DecimalMin(value = "1.00", inclusive = true, message = "Price can't be lower than 1", groups = Complete.class)
     private Double price;
 }
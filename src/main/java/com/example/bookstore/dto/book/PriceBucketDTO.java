@@ -0,0 +1,17 @@
+package com.example.bookstore.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One bar of the price histogram: books priced from `from` (inclusive) to `to` (exclusive); a null bound is open.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceBucketDTO {
+    private Double from;
+    private Double to;
+    private long count;
+}
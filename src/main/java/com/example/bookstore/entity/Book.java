@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.jackson.Jacksonized;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.UUID;
 
@@ -29,8 +30,15 @@ public class Book {
     private String name;
     @Column(name = "author")
     private String author;
-    @Column(name = "description")
+    // Not a column: descriptions live in book_description and are only read for detail views.
+    // Carries the text of a book being written, and is null on books loaded from the database
+    @Transient
     private String description;
     @Column(name = "price")
     private Double price;
+    // Incremented by every update; the ETag of a single book
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -0,0 +1,71 @@
+package com.example.bookstore.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
+
+/**
+ * The description of one book, stored apart from the `book` row so that listings, caches and indexes never load
+ * it. `content` holds the UTF-8 text, gzipped when `encoding` is `gzip`; `originalSize` is its uncompressed size.
+ * <p>
+ * The id is the book's, assigned by the caller, so Spring Data cannot tell a new description from a stored one and
+ * would merge, reading the row first. Descriptions of freshly inserted books are marked new and persisted directly.
+ */
+@Data
+@Entity
+@Table(name = "book_description")
+@NoArgsConstructor
+public class BookDescription implements Persistable<UUID> {
+    public static final String PLAIN = "plain";
+    public static final String GZIP = "gzip";
+
+    @Id
+    @Column(name = "book_id")
+    private UUID bookId;
+    @Column(name = "encoding", nullable = false, length = 16)
+    private String encoding;
+    @Column(name = "original_size", nullable = false)
+    private int originalSize;
+    @JdbcTypeCode(SqlTypes.LONG32VARBINARY)
+    @Column(name = "content", nullable = false)
+    private byte[] content;
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private boolean isNew;
+
+    public BookDescription(UUID bookId, String encoding, int originalSize, byte[] content) {
+        this.bookId = bookId;
+        this.encoding = encoding;
+        this.originalSize = originalSize;
+        this.content = content;
+    }
+
+    @Override
+    public UUID getId() {
+        return bookId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Stored or loaded descriptions are merged when saved again
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        isNew = false;
+    }
+}
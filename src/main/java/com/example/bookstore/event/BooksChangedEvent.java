@@ -0,0 +1,31 @@
+package com.example.bookstore.event;
+
+import com.example.bookstore.entity.Book;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published after books were written, so that in-process indexes and caches can follow the change.
+ * `saved` holds the books as they are stored now (new or updated), `deleted` the ids of removed books.
+ */
+public record BooksChangedEvent(List<Book> saved, Collection<UUID> deleted) {
+
+    public static BooksChangedEvent saved(Book book) {
+        return new BooksChangedEvent(List.of(book), Set.of());
+    }
+
+    public static BooksChangedEvent saved(List<Book> books) {
+        return new BooksChangedEvent(List.copyOf(books), Set.of());
+    }
+
+    public static BooksChangedEvent deleted(UUID bookId) {
+        return new BooksChangedEvent(List.of(), Set.of(bookId));
+    }
+
+    public static BooksChangedEvent deleted(Collection<UUID> bookIds) {
+        return new BooksChangedEvent(List.of(), Set.copyOf(bookIds));
+    }
+}
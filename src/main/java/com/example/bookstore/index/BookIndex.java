@@ -0,0 +1,26 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+
+/**
+ * An in-memory structure over the catalog. It is filled once at startup by the `CatalogIndexLoader`
+ * and then kept current from `BooksChangedEvent`s. Readers must fall back to the database until `isReady()`.
+ */
+public interface BookIndex {
+
+    // Order of the index listeners: ahead of CatalogVersion, which must only advance once every index has
+    // applied the change, so that a listing tagged with the new generation never carries the old rows
+    int LISTENER_ORDER = 0;
+
+    // Adding a book read by the startup load; a change applied meanwhile for the same id wins
+    void load(Book book);
+
+    // Called once the startup load has read every book
+    void markReady();
+
+    boolean isReady();
+
+    // Implementations listen with `@Order(LISTENER_ORDER)`
+    void onBooksChanged(BooksChangedEvent event);
+}
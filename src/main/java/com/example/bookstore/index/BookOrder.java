@@ -0,0 +1,41 @@
+package com.example.bookstore.index;
+
+import java.util.UUID;
+
+/**
+ * Orderings shared by the in-memory indexes. Ids are compared as unsigned 128-bit values, which is the order
+ * PostgreSQL and H2 use for uuid columns. Names are compared by code point, which is the byte order of UTF-8 and
+ * so the order of the C collation the `book.name` column has since V4; H2 compares like `String.compareTo`, which
+ * differs only for characters beyond U+FFFF. Keyset cursors therefore behave the same whether a page was served
+ * from an index or from PostgreSQL.
+ */
+public final class BookOrder {
+
+    private BookOrder() {
+    }
+
+    public static int compareIds(UUID a, UUID b) {
+        int result = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    public static int compareByName(String nameA, UUID idA, String nameB, UUID idB) {
+        int result = compareNames(nameA, nameB);
+        return result != 0 ? result : compareIds(idA, idB);
+    }
+
+    public static int compareNames(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) return codePointOrder(x) - codePointOrder(y);
+        }
+        return a.length() - b.length();
+    }
+
+    // Moving surrogates above U+E000..U+FFFF, so that UTF-16 units compare like the code points they encode
+    private static int codePointOrder(char c) {
+        return c >= 0xE000 ? c - 0x800 : c >= 0xD800 ? c + 0x2000 : c;
+    }
+}
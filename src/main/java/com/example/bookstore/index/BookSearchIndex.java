@@ -0,0 +1,166 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The `BookSearchIndex` answers "name contains" and "author contains" searches from trigram posting lists
+ * instead of a `LIKE '%x%'` scan. Every stored book gets an increasing document number; an update retires the
+ * old number and appends a new one, and the postings are rebuilt once more than half of the numbers are retired.
+ * Matching is case-sensitive like `LIKE`, and results are ordered by (name, id) for keyset paging.
+ */
+@Component
+public class BookSearchIndex implements BookIndex {
+    public enum Field { NAME, AUTHOR }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrigramPostings namePostings = new TrigramPostings();
+    private final TrigramPostings authorPostings = new TrigramPostings();
+    private final Map<UUID, Integer> docOf = new HashMap<>();
+    private final BitSet retired = new BitSet();
+    private final Set<UUID> deletedWhileLoading = new HashSet<>();
+    private UUID[] ids = new UUID[1024];
+    private String[] names = new String[1024];
+    private String[] authors = new String[1024];
+    private int docCount;
+    private volatile boolean ready;
+
+    @Override
+    public void load(Book book) {
+        lock.writeLock().lock();
+        try {
+            if (!docOf.containsKey(book.getId()) && !deletedWhileLoading.contains(book.getId())) {
+                add(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            deletedWhileLoading.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    @EventListener
+    @Order(LISTENER_ORDER)
+    public void onBooksChanged(BooksChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (var id : event.deleted()) {
+                retire(id);
+                if (!ready) deletedWhileLoading.add(id);
+            }
+            for (var book : event.saved()) {
+                retire(book.getId());
+                add(book);
+            }
+            if (retired.cardinality() > 1024 && retired.cardinality() * 2 > docCount) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of the books whose field contains the query, after the (name, id) position, at most limit of them
+    public List<UUID> search(Field field, String query, String afterName, UUID afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            var texts = field == Field.NAME ? names : authors;
+            var candidates = (field == Field.NAME ? namePostings : authorPostings).candidates(query);
+            Comparator<Integer> byName = (a, b) -> BookOrder.compareByName(names[a], ids[a], names[b], ids[b]);
+            var top = new PriorityQueue<>(limit + 1, byName.reversed());
+            int total = candidates == null ? docCount : candidates.size();
+            for (int i = 0; i < total; i++) {
+                int doc = candidates == null ? i : candidates.get(i);
+                if (retired.get(doc) || names[doc] == null || texts[doc] == null || !texts[doc].contains(query)) continue;
+                if (afterId != null && BookOrder.compareByName(names[doc], ids[doc], afterName, afterId) <= 0) continue;
+                top.add(doc);
+                if (top.size() > limit) top.poll();
+            }
+            var docs = top.toArray(new Integer[0]);
+            Arrays.sort(docs, byName);
+            var result = new ArrayList<UUID>(docs.length);
+            for (var doc : docs) {
+                result.add(ids[doc]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Book book) {
+        if (docCount == ids.length) {
+            ids = Arrays.copyOf(ids, docCount * 2);
+            names = Arrays.copyOf(names, docCount * 2);
+            authors = Arrays.copyOf(authors, docCount * 2);
+        }
+        int doc = docCount++;
+        ids[doc] = book.getId();
+        names[doc] = book.getName();
+        authors[doc] = book.getAuthor();
+        namePostings.add(doc, book.getName());
+        authorPostings.add(doc, book.getAuthor());
+        docOf.put(book.getId(), doc);
+    }
+
+    private void retire(UUID id) {
+        var doc = docOf.remove(id);
+        if (doc != null) {
+            retired.set(doc);
+            names[doc] = null;
+            authors[doc] = null;
+        }
+    }
+
+    // Renumbering the live documents and rebuilding the postings without the retired ones
+    private void compact() {
+        var liveIds = new ArrayList<UUID>(docOf.size());
+        var liveNames = new ArrayList<String>(docOf.size());
+        var liveAuthors = new ArrayList<String>(docOf.size());
+        for (int doc = 0; doc < docCount; doc++) {
+            if (retired.get(doc)) continue;
+            liveIds.add(ids[doc]);
+            liveNames.add(names[doc]);
+            liveAuthors.add(authors[doc]);
+        }
+        namePostings.clear();
+        authorPostings.clear();
+        docOf.clear();
+        retired.clear();
+        docCount = 0;
+        for (int i = 0; i < liveIds.size(); i++) {
+            add(Book.builder().id(liveIds.get(i)).name(liveNames.get(i)).author(liveAuthors.get(i)).build());
+        }
+    }
+}
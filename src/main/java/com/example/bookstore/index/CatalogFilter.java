@@ -0,0 +1,14 @@
+package com.example.bookstore.index;
+
+/**
+ * Restriction of a catalog scan; every non-null part must hold. Name and author match by case-sensitive
+ * containment, like the search endpoints; the price range is inclusive and leaves out books without a price.
+ */
+public record CatalogFilter(String nameContains, String authorContains, Double minPrice, Double maxPrice) {
+
+    public static final CatalogFilter NONE = new CatalogFilter(null, null, null, null);
+
+    public boolean isEmpty() {
+        return nameContains == null && authorContains == null && minPrice == null && maxPrice == null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * The `CatalogIndexLoader` fills every `BookIndex` after startup. It streams the catalog once on a background
+ * thread, so the application serves requests (from the database) while the indexes are warming.
+ */
+@Component
+@ConditionalOnProperty(name = "app.index.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogIndexLoader {
+    public static final Logger logger = LoggerFactory.getLogger(CatalogIndexLoader.class);
+
+    private final List<BookIndex> indexes;
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public CatalogIndexLoader(List<BookIndex> indexes, BookRepository bookRepository, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.indexes = indexes;
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (indexes.isEmpty()) return;
+        var loader = new Thread(this::load, "catalog-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void load() {
+        long started = System.currentTimeMillis();
+        try {
+            long count = transactionTemplate.execute(status -> {
+                long loaded = 0;
+                try (var books = bookRepository.streamAll()) {
+                    for (var iterator = books.iterator(); iterator.hasNext(); loaded++) {
+                        var book = iterator.next();
+                        for (var index : indexes) {
+                            index.load(book);
+                        }
+                        entityManager.detach(book);
+                    }
+                }
+                return loaded;
+            });
+            indexes.forEach(BookIndex::markReady);
+            logger.info("Loaded {} books into {} indexes in {} ms", count, indexes.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Loading the catalog indexes failed, reads stay on the database", e);
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.dto.book.AuthorCountDTO;
+import com.example.bookstore.dto.book.FacetsDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The `ColumnarCatalog` keeps the catalog as columns for scans that read every book: the two halves of each id in
+ * `long[]`s, prices in a `double[]` (NaN for none), authors as ids into a dictionary of distinct authors, and names
+ * as offsets into one shared `char[]` in which equal names share their chars.
+ * <p>
+ * Readers scan an immutable `Snapshot` without locking. Writers apply each change to a copy of the columns and
+ * publish the copy (copy-on-write); the dictionary and the name chars are append-only, so snapshots share them.
+ * Deleted rows stay as tombstones until they outnumber the live ones. Scans of at least `parallelThreshold` rows
+ * are split over the common fork/join pool.
+ */
+@Component
+public class ColumnarCatalog implements BookIndex, MeterBinder {
+    private static final int NO_AUTHOR = -1;
+    private static final int DELETED = -2;
+    // Rows per fork/join leaf task
+    static final int SCAN_CHUNK = 16_384;
+
+    private final PriceBuckets priceBuckets;
+    private final int parallelThreshold;
+    private volatile Snapshot snapshot;
+    private volatile boolean ready;
+
+    // Writer state, only touched under the monitor. Rows and distinct names are found through open-addressed
+    // tables of index + 1 (0 for a free slot) compared against the columns and the name chars themselves, so
+    // the writer keeps no object per book either
+    private int[] rowSlots;
+    private int[] nameSlots;
+    private int[] distinctNameStarts;
+    private int[] distinctNameLengths;
+    private int distinctNames;
+    private final Map<String, Integer> authorIdOf = new HashMap<>();
+    private String[] authorDictionary;
+    private int authorCount;
+    private long authorBytes;
+    private char[] nameChars;
+    private int nameCharCount;
+    private Columns staging;
+    private final List<BooksChangedEvent> pending = new ArrayList<>();
+
+    @Autowired
+    public ColumnarCatalog(PriceBuckets priceBuckets,
+                           @Value("${app.columnar.parallelThreshold:100000}") int parallelThreshold) {
+        this.priceBuckets = priceBuckets;
+        this.parallelThreshold = parallelThreshold;
+        resetPools();
+        this.rowSlots = new int[2048];
+        this.staging = new Columns(1024);
+        this.snapshot = freeze(new Columns(0));
+    }
+
+    /**
+     * One row per book ever stored since the last compaction; rows of deleted books have the author `DELETED`.
+     * Never changed once published in a `Snapshot`.
+     */
+    private static final class Columns {
+        long[] msb;
+        long[] lsb;
+        double[] prices;
+        int[] authors;
+        int[] nameStarts;
+        int[] nameLengths;
+        int size;
+        int live;
+
+        Columns(int capacity) {
+            msb = new long[capacity];
+            lsb = new long[capacity];
+            prices = new double[capacity];
+            authors = new int[capacity];
+            nameStarts = new int[capacity];
+            nameLengths = new int[capacity];
+        }
+
+        Columns copy(int capacity) {
+            var copy = new Columns(0);
+            copy.msb = Arrays.copyOf(msb, capacity);
+            copy.lsb = Arrays.copyOf(lsb, capacity);
+            copy.prices = Arrays.copyOf(prices, capacity);
+            copy.authors = Arrays.copyOf(authors, capacity);
+            copy.nameStarts = Arrays.copyOf(nameStarts, capacity);
+            copy.nameLengths = Arrays.copyOf(nameLengths, capacity);
+            copy.size = size;
+            copy.live = live;
+            return copy;
+        }
+    }
+
+    /**
+     * The columns as of one change, with the dictionary and name chars they refer to.
+     */
+    public static final class Snapshot {
+        private final Columns columns;
+        private final String[] authorDictionary;
+        private final int authorCount;
+        private final char[] nameChars;
+        private final long footprintBytes;
+
+        private Snapshot(Columns columns, String[] authorDictionary, int authorCount, char[] nameChars, long footprintBytes) {
+            this.columns = columns;
+            this.authorDictionary = authorDictionary;
+            this.authorCount = authorCount;
+            this.nameChars = nameChars;
+            this.footprintBytes = footprintBytes;
+        }
+
+        public int size() {
+            return columns.live;
+        }
+
+        // Approximate heap held by the columns, the pools and the writer's lookup tables
+        public long footprintBytes() {
+            return footprintBytes;
+        }
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void load(Book book) {
+        if (staging.size == staging.msb.length) {
+            staging = staging.copy(staging.size * 2);
+        }
+        upsert(staging, book);
+    }
+
+    @Override
+    public synchronized void markReady() {
+        snapshot = freeze(staging);
+        staging = null;
+        for (var event : pending) {
+            apply(event);
+        }
+        pending.clear();
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    @EventListener
+    @Order(LISTENER_ORDER)
+    public synchronized void onBooksChanged(BooksChangedEvent event) {
+        if (!ready) {
+            // Replayed over the loaded rows in markReady(); replaying is idempotent
+            pending.add(event);
+            return;
+        }
+        apply(event);
+    }
+
+    // Facets of the books passing the filter, scanned from the current snapshot
+    public FacetsDTO facets(CatalogFilter filter, int authorLimit) {
+        var s = snapshot;
+        var scan = new Scan(s, filter, priceBuckets);
+        var counts = s.columns.live >= parallelThreshold
+                ? ForkJoinPool.commonPool().invoke(new ScanTask(scan, 0, s.columns.size))
+                : scan.count(0, s.columns.size);
+        return toDTO(s, counts, authorLimit);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.columnar.rows", this, catalog -> catalog.snapshot.size())
+                .description("Books in the columnar catalog snapshot")
+                .register(registry);
+        Gauge.builder("catalog.columnar.bytes", this, catalog -> catalog.snapshot.footprintBytes())
+                .description("Approximate heap held by the columnar catalog snapshot")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void apply(BooksChangedEvent event) {
+        var current = snapshot.columns;
+        var columns = current.copy(Math.max(current.msb.length, current.size + event.saved().size()));
+        for (var id : event.deleted()) {
+            int row = rowSlots[rowSlot(columns, id.getMostSignificantBits(), id.getLeastSignificantBits())] - 1;
+            if (row >= 0 && columns.authors[row] != DELETED) {
+                columns.authors[row] = DELETED;
+                columns.live--;
+            }
+        }
+        for (var book : event.saved()) {
+            upsert(columns, book);
+        }
+        int dead = columns.size - columns.live;
+        snapshot = freeze(dead > 1024 && dead > columns.live ? compact(columns) : columns);
+    }
+
+    // Storing the book in its row; a new id takes the next row, which the caller has made room for
+    private void upsert(Columns columns, Book book) {
+        long msb = book.getId().getMostSignificantBits();
+        long lsb = book.getId().getLeastSignificantBits();
+        int slot = rowSlot(columns, msb, lsb);
+        int row = rowSlots[slot] - 1;
+        if (row < 0) {
+            row = columns.size++;
+            rowSlots[slot] = row + 1;
+            columns.live++;
+        } else if (columns.authors[row] == DELETED) {
+            // A deleted book saved again takes its old row back
+            columns.live++;
+        }
+        columns.msb[row] = msb;
+        columns.lsb[row] = lsb;
+        columns.prices[row] = book.getPrice() == null ? Double.NaN : book.getPrice();
+        columns.authors[row] = book.getAuthor() == null ? NO_AUTHOR : authorId(book.getAuthor());
+        columns.nameStarts[row] = book.getName() == null ? -1 : nameStart(book.getName());
+        columns.nameLengths[row] = book.getName() == null ? 0 : book.getName().length();
+        if (columns.size * 2 > rowSlots.length) rehashRows(columns, rowSlots.length * 2);
+    }
+
+    // The slot of the id in the row table: the one holding its row, or the free one it would take
+    private int rowSlot(Columns columns, long msb, long lsb) {
+        int mask = rowSlots.length - 1;
+        for (int slot = spread(Long.hashCode(msb ^ lsb)) & mask; ; slot = (slot + 1) & mask) {
+            int row = rowSlots[slot] - 1;
+            if (row < 0 || columns.msb[row] == msb && columns.lsb[row] == lsb) return slot;
+        }
+    }
+
+    private void rehashRows(Columns columns, int capacity) {
+        rowSlots = new int[capacity];
+        for (int row = 0; row < columns.size; row++) {
+            rowSlots[rowSlot(columns, columns.msb[row], columns.lsb[row])] = row + 1;
+        }
+    }
+
+    private int authorId(String author) {
+        var id = authorIdOf.get(author);
+        if (id != null) return id;
+        if (authorCount == authorDictionary.length) {
+            authorDictionary = Arrays.copyOf(authorDictionary, authorCount * 2);
+        }
+        authorDictionary[authorCount] = author;
+        authorIdOf.put(author, authorCount);
+        // The string (headers plus a byte per Latin-1 char) and its map entry
+        authorBytes += 88 + author.length();
+        return authorCount++;
+    }
+
+    // Where the name's chars start in the shared name chars; equal names share one copy
+    private int nameStart(String name) {
+        reserveNameChars(name.length());
+        name.getChars(0, name.length(), nameChars, nameCharCount);
+        return internTail(name.length());
+    }
+
+    private void reserveNameChars(int length) {
+        if (nameCharCount + length > nameChars.length) {
+            nameChars = Arrays.copyOf(nameChars, Math.max(nameChars.length * 2, nameCharCount + length));
+        }
+    }
+
+    // Interning the name just copied past the used name chars: kept if new, else left for the earlier copy.
+    // Snapshots only read chars below the count they were frozen with, so writing past it is safe
+    private int internTail(int length) {
+        int mask = nameSlots.length - 1;
+        int slot = spread(hash(nameChars, nameCharCount, length)) & mask;
+        for (; nameSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int name = nameSlots[slot] - 1;
+            int start = distinctNameStarts[name];
+            if (distinctNameLengths[name] == length
+                    && Arrays.equals(nameChars, start, start + length, nameChars, nameCharCount, nameCharCount + length)) {
+                return start;
+            }
+        }
+        if (distinctNames == distinctNameStarts.length) {
+            distinctNameStarts = Arrays.copyOf(distinctNameStarts, distinctNames * 2);
+            distinctNameLengths = Arrays.copyOf(distinctNameLengths, distinctNames * 2);
+        }
+        int start = nameCharCount;
+        distinctNameStarts[distinctNames] = start;
+        distinctNameLengths[distinctNames] = length;
+        nameSlots[slot] = ++distinctNames;
+        nameCharCount += length;
+        if (distinctNames * 2 > nameSlots.length) rehashNames(nameSlots.length * 2);
+        return start;
+    }
+
+    private void rehashNames(int capacity) {
+        nameSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int name = 0; name < distinctNames; name++) {
+            int slot = spread(hash(nameChars, distinctNameStarts[name], distinctNameLengths[name])) & mask;
+            while (nameSlots[slot] != 0) slot = (slot + 1) & mask;
+            nameSlots[slot] = name + 1;
+        }
+    }
+
+    private static int hash(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) hash = 31 * hash + chars[i];
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ hash >>> 16;
+    }
+
+    // Rewriting the live rows only, with fresh pools that drop authors and names no longer used
+    private Columns compact(Columns columns) {
+        var oldDictionary = authorDictionary;
+        var oldNameChars = nameChars;
+        resetPools();
+        var compacted = new Columns(Math.max(1024, columns.live * 2));
+        for (int row = 0; row < columns.size; row++) {
+            int author = columns.authors[row];
+            if (author == DELETED) continue;
+            int target = compacted.size++;
+            compacted.msb[target] = columns.msb[row];
+            compacted.lsb[target] = columns.lsb[row];
+            compacted.prices[target] = columns.prices[row];
+            compacted.authors[target] = author == NO_AUTHOR ? NO_AUTHOR : authorId(oldDictionary[author]);
+            int start = columns.nameStarts[row];
+            int length = columns.nameLengths[row];
+            if (start >= 0) {
+                reserveNameChars(length);
+                System.arraycopy(oldNameChars, start, nameChars, nameCharCount, length);
+                start = internTail(length);
+            }
+            compacted.nameStarts[target] = start;
+            compacted.nameLengths[target] = length;
+        }
+        compacted.live = compacted.size;
+        rehashRows(compacted, Integer.highestOneBit(Math.max(1024, compacted.size)) * 4);
+        return compacted;
+    }
+
+    private void resetPools() {
+        authorIdOf.clear();
+        authorDictionary = new String[256];
+        authorCount = 0;
+        authorBytes = 0;
+        nameChars = new char[16_384];
+        nameCharCount = 0;
+        nameSlots = new int[2048];
+        distinctNameStarts = new int[1024];
+        distinctNameLengths = new int[1024];
+        distinctNames = 0;
+    }
+
+    private Snapshot freeze(Columns columns) {
+        // 36 bytes of columns per row, 2 per name char, a reference per dictionary slot plus the authors, and the
+        // writer's lookup tables
+        long bytes = 36L * columns.msb.length + 2L * nameChars.length + 8L * authorDictionary.length + authorBytes
+                + 4L * rowSlots.length + 4L * nameSlots.length + 8L * distinctNameStarts.length;
+        return new Snapshot(columns, authorDictionary, authorCount, nameChars, bytes);
+    }
+
+    // The authorLimit authors with the most books, ties by name, picked with a bounded heap over the author ids
+    private FacetsDTO toDTO(Snapshot s, Counts counts, int authorLimit) {
+        Comparator<Integer> weakestFirst = (a, b) -> counts.authors[a] != counts.authors[b]
+                ? Long.compare(counts.authors[a], counts.authors[b])
+                : s.authorDictionary[b].compareTo(s.authorDictionary[a]);
+        var best = new PriorityQueue<Integer>(authorLimit + 1, weakestFirst);
+        int distinctAuthors = 0;
+        for (int author = 0; author < counts.authors.length; author++) {
+            if (counts.authors[author] == 0) continue;
+            distinctAuthors++;
+            best.add(author);
+            if (best.size() > authorLimit) best.poll();
+        }
+        var topAuthors = new ArrayList<AuthorCountDTO>(best.size());
+        while (!best.isEmpty()) {
+            int author = best.poll();
+            topAuthors.add(new AuthorCountDTO(s.authorDictionary[author], counts.authors[author]));
+        }
+        Collections.reverse(topAuthors);
+        boolean priced = counts.min <= counts.max;
+        return new FacetsDTO(counts.total, priced ? counts.min : null, priced ? counts.max : null, distinctAuthors,
+                topAuthors, priceBuckets.toDTOs(counts.buckets));
+    }
+
+    /**
+     * Counters of one scanned range of rows.
+     */
+    private static final class Counts {
+        long total;
+        final long[] authors;
+        final long[] buckets;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        Counts(int authorCount, int bucketCount) {
+            authors = new long[authorCount];
+            buckets = new long[bucketCount];
+        }
+
+        Counts merge(Counts other) {
+            total += other.total;
+            for (int i = 0; i < authors.length; i++) authors[i] += other.authors[i];
+            for (int i = 0; i < buckets.length; i++) buckets[i] += other.buckets[i];
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+    }
+
+    /**
+     * A filter compiled against one snapshot: the author part is decided once per dictionary entry, so the row
+     * loop only reads primitive columns and, for a name filter, the name chars.
+     */
+    private static final class Scan {
+        private final Snapshot snapshot;
+        private final PriceBuckets priceBuckets;
+        private final char[] name;
+        private final boolean[] authorMatches;
+        private final boolean priceFiltered;
+        private final double minPrice;
+        private final double maxPrice;
+
+        Scan(Snapshot snapshot, CatalogFilter filter, PriceBuckets priceBuckets) {
+            this.snapshot = snapshot;
+            this.priceBuckets = priceBuckets;
+            this.name = filter.nameContains() == null ? null : filter.nameContains().toCharArray();
+            if (filter.authorContains() != null) {
+                authorMatches = new boolean[snapshot.authorCount];
+                for (int author = 0; author < snapshot.authorCount; author++) {
+                    authorMatches[author] = snapshot.authorDictionary[author].contains(filter.authorContains());
+                }
+            } else {
+                authorMatches = null;
+            }
+            this.priceFiltered = filter.minPrice() != null || filter.maxPrice() != null;
+            this.minPrice = filter.minPrice() == null ? Double.NEGATIVE_INFINITY : filter.minPrice();
+            this.maxPrice = filter.maxPrice() == null ? Double.POSITIVE_INFINITY : filter.maxPrice();
+        }
+
+        Counts count(int from, int to) {
+            var c = snapshot.columns;
+            var counts = new Counts(snapshot.authorCount, priceBuckets.count());
+            for (int row = from; row < to; row++) {
+                int author = c.authors[row];
+                if (author == DELETED) continue;
+                if (authorMatches != null && (author < 0 || !authorMatches[author])) continue;
+                double price = c.prices[row];
+                // NaN fails both comparisons, so unpriced books drop out of a price range
+                if (priceFiltered && !(price >= minPrice && price <= maxPrice)) continue;
+                if (name != null && !contains(snapshot.nameChars, c.nameStarts[row], c.nameLengths[row], name)) continue;
+                counts.total++;
+                if (author >= 0) counts.authors[author]++;
+                if (price == price) {
+                    counts.buckets[priceBuckets.bucketOf(price)]++;
+                    if (price < counts.min) counts.min = price;
+                    if (price > counts.max) counts.max = price;
+                }
+            }
+            return counts;
+        }
+
+        private static boolean contains(char[] chars, int start, int length, char[] query) {
+            if (start < 0) return false;
+            outer:
+            for (int i = start, last = start + length - query.length; i <= last; i++) {
+                for (int j = 0; j < query.length; j++) {
+                    if (chars[i + j] != query[j]) continue outer;
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<Counts> {
+        private final Scan scan;
+        private final int from;
+        private final int to;
+
+        ScanTask(Scan scan, int from, int to) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from <= SCAN_CHUNK) return scan.count(from, to);
+            int middle = (from + to) >>> 1;
+            var left = new ScanTask(scan, from, middle);
+            left.fork();
+            var right = new ScanTask(scan, middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+}
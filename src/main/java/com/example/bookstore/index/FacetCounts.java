@@ -0,0 +1,86 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.dto.book.AuthorCountDTO;
+import com.example.bookstore.dto.book.FacetsDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Author and price bucket counters of a set of books, with their price range. Books are added one by one, and can
+ * be taken back, or in groups counted by the database. Not thread-safe.
+ */
+public final class FacetCounts {
+    private final PriceBuckets buckets;
+    private final Map<String, long[]> authors = new HashMap<>();
+    private final long[] bucketCounts;
+    // Prices of the books added one by one, with their multiplicity, for a min and max that survive removals
+    private final TreeMap<Double, long[]> prices = new TreeMap<>();
+    private Double groupMin;
+    private Double groupMax;
+    private long total;
+
+    public FacetCounts(PriceBuckets buckets) {
+        this.buckets = buckets;
+        this.bucketCounts = new long[buckets.count()];
+    }
+
+    // Adding one book with delta 1, or taking it back with delta -1
+    public void add(String author, Double price, int delta) {
+        total += delta;
+        if (author != null) count(authors, author, delta);
+        if (price != null) {
+            bucketCounts[buckets.bucketOf(price)] += delta;
+            count(prices, price, delta);
+        }
+    }
+
+    // Adding books of one author and one bucket (-1 when unpriced), counted and ranged by the database
+    public void addGroup(String author, int bucket, long count, Double min, Double max) {
+        total += count;
+        if (author != null) count(authors, author, count);
+        if (bucket >= 0) bucketCounts[bucket] += count;
+        if (min != null && (groupMin == null || min < groupMin)) groupMin = min;
+        if (max != null && (groupMax == null || max > groupMax)) groupMax = max;
+    }
+
+    // The facets with the authorLimit authors having the most books, ties by name
+    public FacetsDTO toDTO(int authorLimit) {
+        // Keeping the best authorLimit in a bounded heap whose head is the weakest, instead of sorting every author
+        Comparator<Map.Entry<String, long[]>> weakestFirst = Comparator.<Map.Entry<String, long[]>>comparingLong(entry -> entry.getValue()[0])
+                .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        var best = new PriorityQueue<>(Math.max(1, Math.min(authorLimit, authors.size())) + 1, weakestFirst);
+        for (var entry : authors.entrySet()) {
+            best.add(entry);
+            if (best.size() > authorLimit) best.poll();
+        }
+        var topAuthors = new ArrayList<AuthorCountDTO>(best.size());
+        while (!best.isEmpty()) {
+            var entry = best.poll();
+            topAuthors.add(new AuthorCountDTO(entry.getKey(), entry.getValue()[0]));
+        }
+        Collections.reverse(topAuthors);
+        return new FacetsDTO(total, minPrice(), maxPrice(), authors.size(), topAuthors, buckets.toDTOs(bucketCounts));
+    }
+
+    private Double minPrice() {
+        if (prices.isEmpty()) return groupMin;
+        return groupMin == null ? prices.firstKey() : Double.valueOf(Math.min(prices.firstKey(), groupMin));
+    }
+
+    private Double maxPrice() {
+        if (prices.isEmpty()) return groupMax;
+        return groupMax == null ? prices.lastKey() : Double.valueOf(Math.max(prices.lastKey(), groupMax));
+    }
+
+    private static <K> void count(Map<K, long[]> counts, K key, long delta) {
+        var count = counts.computeIfAbsent(key, k -> new long[1]);
+        count[0] += delta;
+        if (count[0] <= 0) counts.remove(key);
+    }
+}
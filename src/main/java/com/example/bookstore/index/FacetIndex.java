@@ -0,0 +1,112 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.dto.book.FacetsDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The `FacetIndex` keeps the author counts, the price histogram and the price range of the whole catalog as
+ * counters, updated by every change, so catalog facets cost no scan. Facets of a filtered catalog are scanned from
+ * the `ColumnarCatalog`.
+ */
+@Component
+public class FacetIndex implements BookIndex {
+
+    // What a book contributed, so that an update or delete can take it back
+    private record Entry(String author, Double price) {
+    }
+
+    private final PriceBuckets priceBuckets;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FacetCounts catalog;
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Set<UUID> deletedWhileLoading = new HashSet<>();
+    private volatile boolean ready;
+
+    @Autowired
+    public FacetIndex(PriceBuckets priceBuckets) {
+        this.priceBuckets = priceBuckets;
+        this.catalog = new FacetCounts(priceBuckets);
+    }
+
+    public PriceBuckets priceBuckets() {
+        return priceBuckets;
+    }
+
+    @Override
+    public void load(Book book) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(book.getId()) && !deletedWhileLoading.contains(book.getId())) {
+                add(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            deletedWhileLoading.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    @EventListener
+    @Order(LISTENER_ORDER)
+    public void onBooksChanged(BooksChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (var id : event.deleted()) {
+                remove(id);
+                if (!ready) deletedWhileLoading.add(id);
+            }
+            for (var book : event.saved()) {
+                remove(book.getId());
+                add(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetsDTO facets(int authorLimit) {
+        lock.readLock().lock();
+        try {
+            return catalog.toDTO(authorLimit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Book book) {
+        entries.put(book.getId(), new Entry(book.getAuthor(), book.getPrice()));
+        catalog.add(book.getAuthor(), book.getPrice(), 1);
+    }
+
+    private void remove(UUID id) {
+        var entry = entries.remove(id);
+        if (entry != null) catalog.add(entry.author(), entry.price(), -1);
+    }
+}
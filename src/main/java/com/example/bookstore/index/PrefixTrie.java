@@ -0,0 +1,340 @@
+package com.example.bookstore.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Case-insensitive radix trie over the distinct values of one text field, ranked for top-K prefix lookups.
+ * Nodes live in parallel int arrays and edge labels are slices of one shared char array, so the trie holds no
+ * object per node. Every node keeps the best rank found below it, which lets a lookup visit the best branches
+ * first and stop after K terms.
+ * <p>
+ * A term's rank is the number of books carrying the value plus the views recorded for them. Terms whose last
+ * book is removed stay in place with rank 0, and the trie is rebuilt once they outnumber the live ones.
+ * Not thread-safe; `TypeaheadIndex` guards it with its lock.
+ */
+final class PrefixTrie {
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+    private static final long TERM = 1L << 31;
+
+    // Nodes: an edge label (a slice of chars), first child, next sibling, parent, terminal term and best rank below
+    private char[] chars;
+    private int charCount;
+    private int[] labelStart;
+    private int[] labelLength;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] parent;
+    private int[] nodeTerm;
+    private int[] best;
+    private int nodeCount;
+    // Terms: display text, books carrying it, views of those books, and the node it ends at
+    private String[] texts;
+    private int[] counts;
+    private int[] views;
+    private int[] termNode;
+    private int termCount;
+    private int liveTerms;
+    private final Map<String, Integer> termOf = new HashMap<>();
+
+    PrefixTrie() {
+        clear();
+    }
+
+    void clear() {
+        chars = new char[4096];
+        charCount = 0;
+        labelStart = new int[1024];
+        labelLength = new int[1024];
+        firstChild = new int[1024];
+        nextSibling = new int[1024];
+        parent = new int[1024];
+        nodeTerm = new int[1024];
+        best = new int[1024];
+        nodeCount = 0;
+        texts = new String[1024];
+        counts = new int[1024];
+        views = new int[1024];
+        termNode = new int[1024];
+        termCount = 0;
+        liveTerms = 0;
+        termOf.clear();
+        newNode(NONE, 0, 0);
+    }
+
+    // Counting one more book carrying the text
+    void add(String text) {
+        if (text == null || text.isEmpty()) return;
+        var key = key(text);
+        var term = termOf.get(key);
+        if (term == null) {
+            term = newTerm(text, insert(key));
+            termOf.put(key, term);
+        }
+        if (counts[term]++ == 0) {
+            texts[term] = text;
+            liveTerms++;
+        }
+        update(termNode[term]);
+    }
+
+    // Counting one book less; the term drops out of the lookups with its last book
+    void remove(String text) {
+        if (text == null || text.isEmpty()) return;
+        var term = termOf.get(key(text));
+        if (term == null || counts[term] == 0) return;
+        if (--counts[term] == 0) {
+            views[term] = 0;
+            liveTerms--;
+        }
+        update(termNode[term]);
+        int dead = termCount - liveTerms;
+        if (dead > 1024 && dead > liveTerms) compact();
+    }
+
+    // Counting views of books carrying the text, saturating at Integer.MAX_VALUE
+    void view(String text, int count) {
+        if (text == null || text.isEmpty() || count <= 0) return;
+        var term = termOf.get(key(text));
+        if (term == null || counts[term] == 0 || views[term] == Integer.MAX_VALUE) return;
+        views[term] = (int) Math.min(Integer.MAX_VALUE, (long) views[term] + count);
+        update(termNode[term]);
+    }
+
+    String text(int term) {
+        return texts[term];
+    }
+
+    int rank(int term) {
+        return counts[term] == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, (long) counts[term] + views[term]);
+    }
+
+    int size() {
+        return liveTerms;
+    }
+
+    // Filling out with the best ranked terms starting with the prefix, best first; returns how many were found
+    int top(CharSequence prefix, int[] out) {
+        int start = find(prefix);
+        if (start == NONE || best[start] == 0 || out.length == 0) return 0;
+        // Max-heap of (rank, kind, id): terms sort before nodes of the same rank, so they come out first
+        var heap = new LongHeap();
+        heap.push((long) best[start] << 32 | start);
+        int found = 0;
+        while (found < out.length && !heap.isEmpty()) {
+            long entry = heap.pop();
+            int id = (int) (entry & Integer.MAX_VALUE);
+            if ((entry & TERM) != 0) {
+                out[found++] = id;
+                continue;
+            }
+            int term = nodeTerm[id];
+            if (term != NONE && counts[term] > 0) {
+                heap.push((long) rank(term) << 32 | TERM | term);
+            }
+            for (int child = firstChild[id]; child != NONE; child = nextSibling[child]) {
+                if (best[child] > 0) heap.push((long) best[child] << 32 | child);
+            }
+        }
+        return found;
+    }
+
+    // The node at or below which every key starts with the prefix, or NONE
+    private int find(CharSequence prefix) {
+        int node = ROOT;
+        int i = 0;
+        while (i < prefix.length()) {
+            char c = Character.toLowerCase(prefix.charAt(i));
+            int child = firstChild[node];
+            while (child != NONE && chars[labelStart[child]] != c) {
+                child = nextSibling[child];
+            }
+            if (child == NONE) return NONE;
+            int length = Math.min(labelLength[child], prefix.length() - i);
+            for (int m = 1; m < length; m++) {
+                if (chars[labelStart[child] + m] != Character.toLowerCase(prefix.charAt(i + m))) return NONE;
+            }
+            i += length;
+            node = child;
+        }
+        return node;
+    }
+
+    // The node for the key, created by splitting an edge or adding a leaf when missing
+    private int insert(String key) {
+        int node = ROOT;
+        int i = 0;
+        while (i < key.length()) {
+            int previous = NONE;
+            int child = firstChild[node];
+            while (child != NONE && chars[labelStart[child]] != key.charAt(i)) {
+                previous = child;
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                int leaf = newNode(node, append(key, i), key.length() - i);
+                nextSibling[leaf] = firstChild[node];
+                firstChild[node] = leaf;
+                return leaf;
+            }
+            int m = 1;
+            while (m < labelLength[child] && i + m < key.length() && chars[labelStart[child] + m] == key.charAt(i + m)) {
+                m++;
+            }
+            if (m < labelLength[child]) {
+                // Splitting the edge: a new node takes the common part, the child keeps the rest
+                int middle = newNode(node, labelStart[child], m);
+                nextSibling[middle] = nextSibling[child];
+                if (previous == NONE) firstChild[node] = middle;
+                else nextSibling[previous] = middle;
+                firstChild[middle] = child;
+                best[middle] = best[child];
+                parent[child] = middle;
+                labelStart[child] += m;
+                labelLength[child] -= m;
+                nextSibling[child] = NONE;
+                child = middle;
+            }
+            node = child;
+            i += m;
+        }
+        return node;
+    }
+
+    // Recomputing the best rank from the node up, as far as it changes
+    private void update(int node) {
+        while (node != NONE) {
+            int rank = nodeTerm[node] == NONE ? 0 : rank(nodeTerm[node]);
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                rank = Math.max(rank, best[child]);
+            }
+            if (rank == best[node]) return;
+            best[node] = rank;
+            node = parent[node];
+        }
+    }
+
+    private int newNode(int parentNode, int start, int length) {
+        if (nodeCount == labelStart.length) {
+            int capacity = nodeCount * 2;
+            labelStart = Arrays.copyOf(labelStart, capacity);
+            labelLength = Arrays.copyOf(labelLength, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            nodeTerm = Arrays.copyOf(nodeTerm, capacity);
+            best = Arrays.copyOf(best, capacity);
+        }
+        int node = nodeCount++;
+        labelStart[node] = start;
+        labelLength[node] = length;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        parent[node] = parentNode;
+        nodeTerm[node] = NONE;
+        best[node] = 0;
+        return node;
+    }
+
+    private int newTerm(String text, int node) {
+        if (termCount == texts.length) {
+            int capacity = termCount * 2;
+            texts = Arrays.copyOf(texts, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            views = Arrays.copyOf(views, capacity);
+            termNode = Arrays.copyOf(termNode, capacity);
+        }
+        int term = termCount++;
+        texts[term] = text;
+        counts[term] = 0;
+        views[term] = 0;
+        termNode[term] = node;
+        nodeTerm[node] = term;
+        return term;
+    }
+
+    // Copying the key from the given position into the label chars; returns where it starts
+    private int append(String key, int from) {
+        int length = key.length() - from;
+        if (charCount + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+        }
+        key.getChars(from, key.length(), chars, charCount);
+        charCount += length;
+        return charCount - length;
+    }
+
+    // Rebuilding from the live terms only, which also drops the label chars of removed ones
+    private void compact() {
+        var live = new ArrayList<Integer>(liveTerms);
+        for (int term = 0; term < termCount; term++) {
+            if (counts[term] > 0) live.add(term);
+        }
+        var liveTexts = new String[live.size()];
+        var liveCounts = new int[live.size()];
+        var liveViews = new int[live.size()];
+        for (int i = 0; i < live.size(); i++) {
+            liveTexts[i] = texts[live.get(i)];
+            liveCounts[i] = counts[live.get(i)];
+            liveViews[i] = views[live.get(i)];
+        }
+        clear();
+        for (int i = 0; i < liveTexts.length; i++) {
+            var key = key(liveTexts[i]);
+            int term = newTerm(liveTexts[i], insert(key));
+            termOf.put(key, term);
+            counts[term] = liveCounts[i];
+            views[term] = liveViews[i];
+            liveTerms++;
+            update(termNode[term]);
+        }
+    }
+
+    private static String key(String text) {
+        var key = new char[text.length()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = Character.toLowerCase(text.charAt(i));
+        }
+        return new String(key);
+    }
+
+    /**
+     * Binary max-heap of longs, the only allocation of a lookup besides its result.
+     */
+    private static final class LongHeap {
+        private long[] values = new long[32];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            int i = size++;
+            while (i > 0 && values[(i - 1) / 2] < value) {
+                values[i] = values[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            values[i] = value;
+        }
+
+        long pop() {
+            long top = values[0];
+            long last = values[--size];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && values[child + 1] > values[child]) child++;
+                if (values[child] <= last) break;
+                values[i] = values[child];
+                i = child;
+            }
+            values[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.dto.book.PriceBucketDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounds of the price histogram. With edges e1 < e2 < ... < en, bucket 0 holds prices below e1, bucket i prices
+ * in [ei, ei+1) and bucket n prices from en up.
+ */
+@Component
+public final class PriceBuckets {
+    private final double[] edges;
+
+    @Autowired
+    public PriceBuckets(@Value("${app.facets.priceBuckets:10,20,50,100}") double[] edges) {
+        for (int i = 0; i < edges.length; i++) {
+            if (!Double.isFinite(edges[i]) || i > 0 && edges[i] <= edges[i - 1]) {
+                throw new IllegalArgumentException("Price bucket edges must be finite and increasing: " + Arrays.toString(edges));
+            }
+        }
+        this.edges = edges.clone();
+    }
+
+    public int count() {
+        return edges.length + 1;
+    }
+
+    public int bucketOf(double price) {
+        int i = Arrays.binarySearch(edges, price);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    public Double from(int bucket) {
+        return bucket == 0 ? null : edges[bucket - 1];
+    }
+
+    public Double to(int bucket) {
+        return bucket == edges.length ? null : edges[bucket];
+    }
+
+    public double[] edges() {
+        return edges.clone();
+    }
+
+    // The histogram of the given per-bucket counts
+    public List<PriceBucketDTO> toDTOs(long[] counts) {
+        var histogram = new ArrayList<PriceBucketDTO>(counts.length);
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            histogram.add(new PriceBucketDTO(from(bucket), to(bucket), counts[bucket]));
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The `PriceIndex` keeps every priced book sorted by (price, id) in parallel primitive arrays:
+ * `double[]` prices and the two halves of each id in `long[]`s. Readers binary-search an immutable snapshot
+ * without locking or boxing; writers build the next snapshot by merging the change into the current one.
+ * Books without a price are not indexed, exactly as the `price IS NOT NULL` queries skip them.
+ */
+@Component
+public class PriceIndex implements BookIndex {
+    private static final Snapshot EMPTY = new Snapshot(new double[0], new long[0], new long[0], 0);
+
+    private volatile Snapshot snapshot = EMPTY;
+    private volatile boolean ready;
+
+    // Rows read by the startup load and changes seen meanwhile; both are only touched under the monitor
+    private Snapshot staging = EMPTY;
+    private final List<BooksChangedEvent> pending = new ArrayList<>();
+
+    /**
+     * Result of a price range lookup: the requested slice of ids and the number of books in the whole range.
+     */
+    public record Range(List<UUID> ids, int total) {
+    }
+
+    @Override
+    public synchronized void load(Book book) {
+        if (book.getPrice() == null) return;
+        var s = staging;
+        if (s.size == s.prices.length) {
+            int capacity = Math.max(1024, s.size * 2);
+            s = new Snapshot(Arrays.copyOf(s.prices, capacity), Arrays.copyOf(s.msb, capacity),
+                    Arrays.copyOf(s.lsb, capacity), s.size);
+        }
+        s.prices[s.size] = book.getPrice();
+        s.msb[s.size] = book.getId().getMostSignificantBits();
+        s.lsb[s.size] = book.getId().getLeastSignificantBits();
+        staging = new Snapshot(s.prices, s.msb, s.lsb, s.size + 1);
+    }
+
+    @Override
+    public synchronized void markReady() {
+        var s = staging;
+        sort(s.prices, s.msb, s.lsb, 0, s.size);
+        var current = s;
+        for (var event : pending) {
+            current = apply(current, event);
+        }
+        snapshot = current;
+        staging = EMPTY;
+        pending.clear();
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    @EventListener
+    @Order(LISTENER_ORDER)
+    public synchronized void onBooksChanged(BooksChangedEvent event) {
+        if (!ready) {
+            // Replayed over the loaded rows in markReady(); replaying is idempotent
+            pending.add(event);
+            return;
+        }
+        snapshot = apply(snapshot, event);
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    // Ids ordered by (price, id) ascending, starting right after the given position when afterId is not null
+    public List<UUID> ascending(double afterPrice, UUID afterId, int limit) {
+        var s = snapshot;
+        int from = afterId == null ? 0
+                : upperBound(s, afterPrice, afterId.getMostSignificantBits(), afterId.getLeastSignificantBits());
+        return ids(s, from, Math.min(s.size, from + limit));
+    }
+
+    // Ids ordered by (price, id) descending, starting right after the given position when afterId is not null
+    public List<UUID> descending(double afterPrice, UUID afterId, int limit) {
+        var s = snapshot;
+        int to = afterId == null ? s.size
+                : lowerBound(s, afterPrice, afterId.getMostSignificantBits(), afterId.getLeastSignificantBits());
+        var result = new ArrayList<UUID>(Math.max(0, Math.min(limit, to)));
+        for (int i = to - 1; i >= 0 && result.size() < limit; i--) {
+            result.add(new UUID(s.msb[i], s.lsb[i]));
+        }
+        return result;
+    }
+
+    // Ids of the books priced within [min, max], ordered by (price, id), skipping offset of them
+    public Range between(double min, double max, int offset, int limit) {
+        var s = snapshot;
+        int lo = lowerBound(s, min, 0L, 0L);
+        int hi = upperBound(s, max, -1L, -1L);
+        if (hi < lo) return new Range(List.of(), 0);
+        int from = (int) Math.min((long) lo + offset, hi);
+        return new Range(ids(s, from, (int) Math.min((long) from + limit, hi)), hi - lo);
+    }
+
+    private static List<UUID> ids(Snapshot s, int from, int to) {
+        var result = new ArrayList<UUID>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            result.add(new UUID(s.msb[i], s.lsb[i]));
+        }
+        return result;
+    }
+
+    // First position whose entry is not less than (price, msb, lsb)
+    private static int lowerBound(Snapshot s, double price, long msb, long lsb) {
+        int lo = 0;
+        int hi = s.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(s.prices[mid], s.msb[mid], s.lsb[mid], price, msb, lsb) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // First position whose entry is greater than (price, msb, lsb)
+    private static int upperBound(Snapshot s, double price, long msb, long lsb) {
+        int lo = 0;
+        int hi = s.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(s.prices[mid], s.msb[mid], s.lsb[mid], price, msb, lsb) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Merging a change into a snapshot: the changed ids are dropped and the saved prices are merged back in order
+    private static Snapshot apply(Snapshot s, BooksChangedEvent event) {
+        int changed = event.saved().size() + event.deleted().size();
+        if (changed == 0) return s;
+        var removedMsb = new long[changed];
+        var removedLsb = new long[changed];
+        int removed = 0;
+        for (var id : event.deleted()) {
+            removedMsb[removed] = id.getMostSignificantBits();
+            removedLsb[removed++] = id.getLeastSignificantBits();
+        }
+        var added = new Snapshot(new double[event.saved().size()], new long[event.saved().size()],
+                new long[event.saved().size()], 0);
+        int addedCount = 0;
+        for (var book : event.saved()) {
+            removedMsb[removed] = book.getId().getMostSignificantBits();
+            removedLsb[removed++] = book.getId().getLeastSignificantBits();
+            if (book.getPrice() == null) continue;
+            added.prices[addedCount] = book.getPrice();
+            added.msb[addedCount] = book.getId().getMostSignificantBits();
+            added.lsb[addedCount++] = book.getId().getLeastSignificantBits();
+        }
+        var zeros = new double[removed];
+        sort(zeros, removedMsb, removedLsb, 0, removed);
+        sort(added.prices, added.msb, added.lsb, 0, addedCount);
+
+        int capacity = s.size + addedCount;
+        var prices = new double[capacity];
+        var msb = new long[capacity];
+        var lsb = new long[capacity];
+        int size = 0;
+        int a = 0;
+        for (int i = 0; i < s.size; i++) {
+            if (containsId(removedMsb, removedLsb, removed, s.msb[i], s.lsb[i])) continue;
+            while (a < addedCount && compare(added.prices[a], added.msb[a], added.lsb[a], s.prices[i], s.msb[i], s.lsb[i]) < 0) {
+                prices[size] = added.prices[a];
+                msb[size] = added.msb[a];
+                lsb[size++] = added.lsb[a++];
+            }
+            prices[size] = s.prices[i];
+            msb[size] = s.msb[i];
+            lsb[size++] = s.lsb[i];
+        }
+        for (; a < addedCount; a++) {
+            prices[size] = added.prices[a];
+            msb[size] = added.msb[a];
+            lsb[size++] = added.lsb[a];
+        }
+        return new Snapshot(prices, msb, lsb, size);
+    }
+
+    private static boolean containsId(long[] msb, long[] lsb, int size, long keyMsb, long keyLsb) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int result = compareId(msb[mid], lsb[mid], keyMsb, keyLsb);
+            if (result < 0) lo = mid + 1;
+            else if (result > 0) hi = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    private static int compare(double priceA, long msbA, long lsbA, double priceB, long msbB, long lsbB) {
+        int result = Double.compare(priceA, priceB);
+        return result != 0 ? result : compareId(msbA, lsbA, msbB, lsbB);
+    }
+
+    // Same unsigned order as BookOrder.compareIds
+    private static int compareId(long msbA, long lsbA, long msbB, long lsbB) {
+        int result = Long.compareUnsigned(msbA, msbB);
+        return result != 0 ? result : Long.compareUnsigned(lsbA, lsbB);
+    }
+
+    // Quicksort of the three parallel arrays in [from, to), falling back to insertion sort for short ranges
+    static void sort(double[] prices, long[] msb, long[] lsb, int from, int to) {
+        while (to - from > 16) {
+            int mid = (from + to) >>> 1;
+            swap(prices, msb, lsb, mid, to - 1);
+            int store = from;
+            for (int i = from; i < to - 1; i++) {
+                if (compare(prices[i], msb[i], lsb[i], prices[to - 1], msb[to - 1], lsb[to - 1]) < 0) {
+                    swap(prices, msb, lsb, i, store++);
+                }
+            }
+            swap(prices, msb, lsb, store, to - 1);
+            // Recursing into the smaller side keeps the stack depth logarithmic
+            if (store - from < to - store - 1) {
+                sort(prices, msb, lsb, from, store);
+                from = store + 1;
+            } else {
+                sort(prices, msb, lsb, store + 1, to);
+                to = store;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && compare(prices[j - 1], msb[j - 1], lsb[j - 1], prices[j], msb[j], lsb[j]) > 0; j--) {
+                swap(prices, msb, lsb, j - 1, j);
+            }
+        }
+    }
+
+    private static void swap(double[] prices, long[] msb, long[] lsb, int i, int j) {
+        double price = prices[i];
+        prices[i] = prices[j];
+        prices[j] = price;
+        long high = msb[i];
+        msb[i] = msb[j];
+        msb[j] = high;
+        long low = lsb[i];
+        lsb[i] = lsb[j];
+        lsb[j] = low;
+    }
+
+    /**
+     * An immutable view once published: arrays are never written after the snapshot becomes visible to readers.
+     */
+    private record Snapshot(double[] prices, long[] msb, long[] lsb, int size) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bookstore.index;
+
+/**
+ * One typeahead suggestion: a book name or author starting with the typed prefix, and its popularity.
+ */
+public record Suggestion(String text, BookSearchIndex.Field field, int score) {
+}
@@ -0,0 +1,102 @@
+package com.example.bookstore.index;
+
+import java.util.Arrays;
+
+/**
+ * Trigram inverted index of one text field. Each trigram (three chars packed into a long) maps to a sorted
+ * posting list of document numbers. The map uses open addressing over primitive keys, so lookups do not box.
+ * Not thread-safe; `BookSearchIndex` guards it with its lock.
+ */
+final class TrigramPostings {
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private IntList[] postings;
+    private int size;
+
+    TrigramPostings() {
+        clear();
+    }
+
+    void clear() {
+        keys = new long[1024];
+        Arrays.fill(keys, EMPTY);
+        postings = new IntList[1024];
+        size = 0;
+    }
+
+    // Documents must be added in increasing order, which keeps every posting list sorted
+    void add(int doc, String text) {
+        if (text == null) return;
+        for (int i = 0; i + 2 < text.length(); i++) {
+            var list = listFor(trigram(text, i), true);
+            if (list.isEmpty() || list.last() != doc) {
+                list.add(doc);
+            }
+        }
+    }
+
+    // Documents containing every trigram of the query, or null when the query is too short to use the index
+    IntList candidates(String query) {
+        if (query.length() < 3) return null;
+        var lists = new IntList[query.length() - 2];
+        int count = 0;
+        for (int i = 0; i + 2 < query.length(); i++) {
+            var list = listFor(trigram(query, i), false);
+            if (list == null) return new IntList(1);
+            lists[count++] = list;
+        }
+        Arrays.sort(lists, 0, count, (a, b) -> Integer.compare(a.size(), b.size()));
+        var smallest = lists[0];
+        var result = new IntList(smallest.size());
+        for (int i = 0; i < smallest.size(); i++) {
+            int doc = smallest.get(i);
+            boolean inAll = true;
+            for (int l = 1; l < count && inAll; l++) {
+                inAll = lists[l] == smallest || lists[l].containsSorted(doc);
+            }
+            if (inAll) result.add(doc);
+        }
+        return result;
+    }
+
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    private IntList listFor(long key, boolean create) {
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) return postings[slot];
+            slot = (slot + 1) & mask;
+        }
+        if (!create) return null;
+        if (size * 2 >= keys.length) {
+            grow();
+            return listFor(key, true);
+        }
+        keys[slot] = key;
+        postings[slot] = new IntList(4);
+        size++;
+        return postings[slot];
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldPostings = postings;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        postings = new IntList[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = Long.hashCode(oldKeys[i] * 0x9E3779B97F4A7C15L) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            postings[slot] = oldPostings[i];
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The `TypeaheadIndex` suggests book names and authors starting with a typed prefix, from one `PrefixTrie` per
+ * field. A suggestion's score is the number of books carrying the value plus the detail views of those books, and
+ * the best scored ones are returned first. A lookup touches no database and allocates little beyond its result.
+ * <p>
+ * Views are counted on the detail-read path without the index's lock: each book gets a `LongAdder`, and its id is
+ * queued once until the next writer or lookup holding the write lock applies the new views to the tries.
+ */
+@Component
+public class TypeaheadIndex implements BookIndex {
+
+    // What a book contributed, so that an update or delete can take it back
+    private record Entry(String name, String author) {
+    }
+
+    // Views of one book: counted by any thread, applied under the write lock up to the total seen at the last drain
+    private static final class ViewCounter {
+        final LongAdder views = new LongAdder();
+        final AtomicBoolean queued = new AtomicBoolean();
+        long applied;
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PrefixTrie names = new PrefixTrie();
+    private final PrefixTrie authors = new PrefixTrie();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Set<UUID> deletedWhileLoading = new HashSet<>();
+    private final Map<UUID, ViewCounter> viewCounters = new ConcurrentHashMap<>();
+    private final Queue<UUID> viewed = new ConcurrentLinkedQueue<>();
+    private volatile boolean ready;
+
+    @Override
+    public void load(Book book) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(book.getId()) && !deletedWhileLoading.contains(book.getId())) {
+                add(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            deletedWhileLoading.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    @EventListener
+    @Order(LISTENER_ORDER)
+    public void onBooksChanged(BooksChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            applyViews();
+            for (var id : event.deleted()) {
+                remove(id);
+                if (!ready) deletedWhileLoading.add(id);
+            }
+            for (var book : event.saved()) {
+                update(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Counting a detail view towards the book's name and author, without taking the lock. The id is queued when its
+    // counter was not queued yet, so the queue holds each viewed book at most once
+    public void recordView(UUID bookId) {
+        var counter = viewCounters.get(bookId);
+        if (counter == null) counter = viewCounters.computeIfAbsent(bookId, id -> new ViewCounter());
+        counter.views.increment();
+        if (!counter.queued.get() && counter.queued.compareAndSet(false, true)) viewed.add(bookId);
+    }
+
+    // Names and authors starting with the prefix, ignoring case, best scored first and names first on a tie
+    public List<Suggestion> suggest(String prefix, int limit) {
+        var nameTerms = new int[limit];
+        var authorTerms = new int[limit];
+        // Applying the queued views first; under contention the lookup rather ranks without the latest ones
+        if (!viewed.isEmpty() && lock.writeLock().tryLock()) {
+            try {
+                applyViews();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.readLock().lock();
+        try {
+            int nameCount = names.top(prefix, nameTerms);
+            int authorCount = authors.top(prefix, authorTerms);
+            var result = new ArrayList<Suggestion>(Math.min(limit, nameCount + authorCount));
+            int n = 0;
+            int a = 0;
+            while (result.size() < limit && (n < nameCount || a < authorCount)) {
+                if (a == authorCount || n < nameCount && names.rank(nameTerms[n]) >= authors.rank(authorTerms[a])) {
+                    result.add(new Suggestion(names.text(nameTerms[n]), BookSearchIndex.Field.NAME, names.rank(nameTerms[n++])));
+                } else {
+                    result.add(new Suggestion(authors.text(authorTerms[a]), BookSearchIndex.Field.AUTHOR, authors.rank(authorTerms[a++])));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Applying the views counted since the last drain, under the write lock. A counter is unqueued before its total
+    // is read, so a view counted after the read queues it again; views of books no longer indexed are dropped
+    private void applyViews() {
+        UUID id;
+        while ((id = viewed.poll()) != null) {
+            var counter = viewCounters.get(id);
+            if (counter == null) continue;
+            counter.queued.set(false);
+            var entry = entries.get(id);
+            if (entry == null) {
+                viewCounters.remove(id);
+                continue;
+            }
+            long total = counter.views.sum();
+            int views = (int) Math.min(Integer.MAX_VALUE, total - counter.applied);
+            counter.applied = total;
+            names.view(entry.name(), views);
+            authors.view(entry.author(), views);
+        }
+    }
+
+    private void add(Book book) {
+        entries.put(book.getId(), new Entry(book.getName(), book.getAuthor()));
+        names.add(book.getName());
+        authors.add(book.getAuthor());
+    }
+
+    // Moving a saved book's contribution only for the fields it changed: a term loses its views with its last book,
+    // so an edit of the price alone must not take the name and author back
+    private void update(Book book) {
+        var previous = entries.put(book.getId(), new Entry(book.getName(), book.getAuthor()));
+        if (previous == null) {
+            names.add(book.getName());
+            authors.add(book.getAuthor());
+            return;
+        }
+        if (!Objects.equals(previous.name(), book.getName())) {
+            names.add(book.getName());
+            names.remove(previous.name());
+        }
+        if (!Objects.equals(previous.author(), book.getAuthor())) {
+            authors.add(book.getAuthor());
+            authors.remove(previous.author());
+        }
+    }
+
+    private void remove(UUID id) {
+        viewCounters.remove(id);
+        var entry = entries.remove(id);
+        if (entry != null) {
+            names.remove(entry.name());
+            authors.remove(entry.author());
+        }
+    }
+}
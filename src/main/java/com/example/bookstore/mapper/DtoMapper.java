@@ -0,0 +1,21 @@
+package com.example.bookstore.mapper;
+
+import com.example.bookstore.dto.UserDTO;
+import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.User;
+
+/**
+ * The `DtoMapper` interface converts between entities and DTOs. Implementations copy fields explicitly,
+ * without reflection, because these conversions run on every request and once per row of a listing.
+ */
+public interface DtoMapper {
+    BookDTO toDTO(Book book);
+
+    Book toEntity(BookDTO bookDTO);
+
+    Book toEntity(InsertBookDTO insertBookDTO);
+
+    UserDTO toDTO(User user);
+}
@@ -0,0 +1,61 @@
+package com.example.bookstore.mapper;
+
+import com.example.bookstore.dto.UserDTO;
+import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.User;
+
+/**
+ * Field-by-field implementation of `DtoMapper`. A null source maps to null.
+ */
+public class DtoMapperImpl implements DtoMapper {
+
+    @Override
+    public BookDTO toDTO(Book book) {
+        if (book == null) return null;
+        var bookDTO = new BookDTO();
+        bookDTO.setId(book.getId());
+        bookDTO.setName(book.getName());
+        bookDTO.setAuthor(book.getAuthor());
+        bookDTO.setDescription(book.getDescription());
+        bookDTO.setPrice(book.getPrice());
+        bookDTO.setVersion(book.getVersion());
+        return bookDTO;
+    }
+
+    @Override
+    public Book toEntity(BookDTO bookDTO) {
+        if (bookDTO == null) return null;
+        return Book.builder()
+                .id(bookDTO.getId())
+                .name(bookDTO.getName())
+                .author(bookDTO.getAuthor())
+                .description(bookDTO.getDescription())
+                .price(bookDTO.getPrice())
+                .version(bookDTO.getVersion())
+                .build();
+    }
+
+    @Override
+    public Book toEntity(InsertBookDTO insertBookDTO) {
+        if (insertBookDTO == null) return null;
+        return Book.builder()
+                .name(insertBookDTO.getName())
+                .author(insertBookDTO.getAuthor())
+                .description(insertBookDTO.getDescription())
+                .price(insertBookDTO.getPrice())
+                .build();
+    }
+
+    @Override
+    public UserDTO toDTO(User user) {
+        if (user == null) return null;
+        var userDTO = new UserDTO();
+        userDTO.setId(user.getId());
+        userDTO.setUsername(user.getUsername());
+        userDTO.setPassword(user.getPassword());
+        userDTO.setRole(user.getRole());
+        return userDTO;
+    }
+}
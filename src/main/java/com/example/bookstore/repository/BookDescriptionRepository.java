@@ -0,0 +1,25 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.BookDescription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BookDescriptionRepository extends JpaRepository<BookDescription, UUID> {
+
+    @Query("SELECT d FROM BookDescription d WHERE d.bookId IN :bookIds")
+    List<BookDescription> findAllByBookIdIn(@Param("bookIds") Collection<UUID> bookIds);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM BookDescription d WHERE d.bookId IN :bookIds")
+    int deleteAllByBookIdIn(@Param("bookIds") Collection<UUID> bookIds);
+}
@@ -0,0 +1,21 @@
+package com.example.bookstore.repository;
+
+import java.util.UUID;
+
+/**
+ * A partial update of one book: null fields are left unchanged. When `expectedVersion` is not null the
+ * update only applies if the stored version still equals it. A description only bumps the version of the row;
+ * the text itself lives in `book_description` and is written by the caller.
+ */
+public record BookPatch(UUID id, Long expectedVersion, String name, String author, String description, Double price) {
+
+    public boolean isEmpty() {
+        return name == null && author == null && description == null && price == null;
+    }
+
+    // Bit set of the fields this patch writes, plus the version check; patches of one shape share an UPDATE
+    int shape() {
+        return (name != null ? 1 : 0) | (author != null ? 2 : 0) | (price != null ? 8 : 0)
+                | (expectedVersion != null ? 16 : 0);
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.bookstore.repository;
 
 import com.example.bookstore.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * @author oksanapoliakova on 12.03.2024
@@ -14,10 +24,111 @@ import java.util.UUID;
  */
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, UUID> {
-    List<Book> findByNameContaining(String partOfName);
-    List<Book> findByAuthorContaining(String author);
-    List<Book> findAllByOrderByPriceAsc();
-    List<Book> findAllByOrderByPriceDesc();
+public interface BookRepository extends JpaRepository<Book, UUID>, BookRepositoryCustom {
     Optional<Book> findBookByName(String name);
+    long countByPriceBetween(Double min, Double max);
+
+    // Streaming every book with a JDBC fetch size, must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b FROM Book b")
+    Stream<Book> streamAll();
+
+    // Streaming every book with its description (null when it has none) as [Book, BookDescription] rows, like streamAll
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b, d FROM Book b LEFT JOIN BookDescription d ON d.bookId = b.id")
+    Stream<Object[]> streamAllWithDescriptions();
+
+    // JPQL instead of findAllById: the criteria query behind findAllById is translated again on every call
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids")
+    List<Book> findAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query(BookSummary.SELECT + " WHERE b.id IN :ids")
+    List<BookSummary> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<UUID> findIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.author = :author")
+    List<UUID> findIdsByAuthor(@Param("author") String author);
+
+    // Set-based delete without loading the entities first, unlike deleteById
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Book b WHERE b.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Keyset pages of summaries ordered by (name, id). Books without a name come after all others, ordered by id:
+    // they are paged by the WithoutName queries, so the keyset conditions stay plain ranges over the (name, id) index
+    @Query(BookSummary.SELECT + " WHERE b.name IS NOT NULL ORDER BY b.name ASC, b.id ASC")
+    List<BookSummary> findPageOrderByName(Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.name > :name OR (b.name = :name AND b.id > :id) ORDER BY b.name ASC, b.id ASC")
+    List<BookSummary> findPageOrderByNameAfter(@Param("name") String name, @Param("id") UUID id, Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.name IS NULL ORDER BY b.id ASC")
+    List<BookSummary> findPageWithoutName(Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.name IS NULL AND b.id > :id ORDER BY b.id ASC")
+    List<BookSummary> findPageWithoutNameAfter(@Param("id") UUID id, Pageable pageable);
+
+    // Searches take a LIKE pattern whose wildcards are already escaped with a backslash, wrapped in %: Spring Data
+    // does not escape the value it binds to LIKE %:param%
+    @Query(BookSummary.SELECT + " WHERE b.name LIKE :pattern ESCAPE '\\' ORDER BY b.name ASC, b.id ASC")
+    List<BookSummary> findPageByNameContaining(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.name LIKE :pattern ESCAPE '\\' AND (b.name > :name OR (b.name = :name AND b.id > :id)) " +
+            "ORDER BY b.name ASC, b.id ASC")
+    List<BookSummary> findPageByNameContainingAfter(@Param("pattern") String pattern, @Param("name") String name,
+                                                    @Param("id") UUID id, Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.author LIKE :pattern ESCAPE '\\' AND b.name IS NOT NULL ORDER BY b.name ASC, b.id ASC")
+    List<BookSummary> findPageByAuthorContaining(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.author LIKE :pattern ESCAPE '\\' AND (b.name > :name OR (b.name = :name AND b.id > :id)) " +
+            "ORDER BY b.name ASC, b.id ASC")
+    List<BookSummary> findPageByAuthorContainingAfter(@Param("pattern") String pattern, @Param("name") String name,
+                                                      @Param("id") UUID id, Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.author LIKE :pattern ESCAPE '\\' AND b.name IS NULL ORDER BY b.id ASC")
+    List<BookSummary> findPageByAuthorContainingWithoutName(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.author LIKE :pattern ESCAPE '\\' AND b.name IS NULL AND b.id > :id ORDER BY b.id ASC")
+    List<BookSummary> findPageByAuthorContainingWithoutNameAfter(@Param("pattern") String pattern, @Param("id") UUID id,
+                                                                 Pageable pageable);
+
+    // Typeahead without the in-memory index: [value, books] rows of names or authors starting with a lowercase prefix,
+    // whose LIKE wildcards must be escaped with a backslash
+    @Query("SELECT b.name, COUNT(b) FROM Book b WHERE LOWER(b.name) LIKE :prefix% ESCAPE '\\' GROUP BY b.name ORDER BY COUNT(b) DESC, b.name")
+    List<Object[]> countNamesStartingWith(@Param("prefix") String prefix, Pageable pageable);
+
+    @Query("SELECT b.author, COUNT(b) FROM Book b WHERE LOWER(b.author) LIKE :prefix% ESCAPE '\\' GROUP BY b.author ORDER BY COUNT(b) DESC, b.author")
+    List<Object[]> countAuthorsStartingWith(@Param("prefix") String prefix, Pageable pageable);
+
+    // Keyset pages of summaries ordered by (price, id), in either direction followed by the books without a price
+    // ordered by id
+    @Query(BookSummary.SELECT + " WHERE b.price IS NOT NULL ORDER BY b.price ASC, b.id ASC")
+    List<BookSummary> findPageOrderByPriceAsc(Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.price > :price OR (b.price = :price AND b.id > :id) ORDER BY b.price ASC, b.id ASC")
+    List<BookSummary> findPageOrderByPriceAscAfter(@Param("price") Double price, @Param("id") UUID id, Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.price IS NOT NULL ORDER BY b.price DESC, b.id DESC")
+    List<BookSummary> findPageOrderByPriceDesc(Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.price < :price OR (b.price = :price AND b.id < :id) ORDER BY b.price DESC, b.id DESC")
+    List<BookSummary> findPageOrderByPriceDescAfter(@Param("price") Double price, @Param("id") UUID id, Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.price IS NULL ORDER BY b.id ASC")
+    List<BookSummary> findPageWithoutPrice(Pageable pageable);
+
+    @Query(BookSummary.SELECT + " WHERE b.price IS NULL AND b.id > :id ORDER BY b.id ASC")
+    List<BookSummary> findPageWithoutPriceAfter(@Param("id") UUID id, Pageable pageable);
 }
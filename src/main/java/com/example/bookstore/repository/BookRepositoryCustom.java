@@ -0,0 +1,21 @@
+package com.example.bookstore.repository;
+
+import java.util.List;
+
+/**
+ * Queries of `BookRepository` that cannot be expressed as derived or `@Query` methods.
+ */
+public interface BookRepositoryCustom {
+
+    // Summaries of the books priced within [min, max] ordered by (price, id), skipping offset rows; Pageable cannot express arbitrary offsets
+    List<BookSummary> findPageByPriceBetween(double min, double max, int offset, int limit);
+
+    // [author, bucket, count, min price, max price] rows grouped by author and price bucket, in one query. Buckets are
+    // numbered as in PriceBuckets over the given edges, -1 for books without price. The LIKE patterns, already escaped
+    // with a backslash and wrapped in %, and the inclusive price bounds restrict the books when not null
+    List<Object[]> countByAuthorAndPriceBucket(double[] edges, String namePattern, String authorPattern,
+                                               Double minPrice, Double maxPrice);
+
+    // Applying the patches without reading the rows first; returns the number of rows each patch updated (0 or 1)
+    int[] updatePartially(List<BookPatch> patches);
+}
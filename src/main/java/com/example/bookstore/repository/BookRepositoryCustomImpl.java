@@ -0,0 +1,107 @@
+package com.example.bookstore.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * The `BookRepositoryCustomImpl` class implements the `BookRepositoryCustom` fragment with the JPA `EntityManager`.
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookSummary> findPageByPriceBetween(double min, double max, int offset, int limit) {
+        return entityManager.createQuery(
+                        BookSummary.SELECT + " WHERE b.price BETWEEN :min AND :max ORDER BY b.price ASC, b.id ASC", BookSummary.class)
+                .setParameter("min", min)
+                .setParameter("max", max)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // The edges are written as literals, not bound, so that the CASE in GROUP BY is the very expression selected
+    @Override
+    @Transactional(readOnly = true)
+    public List<Object[]> countByAuthorAndPriceBucket(double[] edges, String namePattern, String authorPattern,
+                                                      Double minPrice, Double maxPrice) {
+        var bucket = new StringBuilder("CASE WHEN b.price IS NULL THEN -1");
+        for (int i = 0; i < edges.length; i++) {
+            bucket.append(" WHEN b.price < ").append(BigDecimal.valueOf(edges[i]).toPlainString()).append(" THEN ").append(i);
+        }
+        bucket.append(" ELSE ").append(edges.length).append(" END");
+        var conditions = new ArrayList<String>();
+        if (namePattern != null) conditions.add("b.name LIKE :namePattern ESCAPE '\\'");
+        if (authorPattern != null) conditions.add("b.author LIKE :authorPattern ESCAPE '\\'");
+        if (minPrice != null) conditions.add("b.price >= :minPrice");
+        if (maxPrice != null) conditions.add("b.price <= :maxPrice");
+        var where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        var query = entityManager.createQuery("SELECT b.author, " + bucket + ", COUNT(b), MIN(b.price), MAX(b.price) FROM Book b"
+                + where + " GROUP BY b.author, " + bucket, Object[].class);
+        if (namePattern != null) query.setParameter("namePattern", namePattern);
+        if (authorPattern != null) query.setParameter("authorPattern", authorPattern);
+        if (minPrice != null) query.setParameter("minPrice", minPrice);
+        if (maxPrice != null) query.setParameter("maxPrice", maxPrice);
+        return query.getResultList();
+    }
+
+    // One UPDATE per shape of patch, setting only the given columns, sent as a JDBC batch on the transaction's
+    // connection. The persistence context is cleared afterwards, so no stale managed copy survives the update
+    @Override
+    @Transactional
+    public int[] updatePartially(List<BookPatch> patches) {
+        var byShape = new LinkedHashMap<Integer, List<Integer>>();
+        for (int i = 0; i < patches.size(); i++) {
+            byShape.computeIfAbsent(patches.get(i).shape(), shape -> new ArrayList<>()).add(i);
+        }
+        var counts = new int[patches.size()];
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            for (var positions : byShape.values()) {
+                var first = patches.get(positions.get(0));
+                try (var statement = connection.prepareStatement(updateSql(first))) {
+                    for (int position : positions) {
+                        bind(statement, patches.get(position));
+                        statement.addBatch();
+                    }
+                    var updated = statement.executeBatch();
+                    for (int i = 0; i < positions.size(); i++) {
+                        counts[positions.get(i)] = updated[i];
+                    }
+                }
+            }
+        });
+        entityManager.clear();
+        return counts;
+    }
+
+    private static String updateSql(BookPatch patch) {
+        var sql = new StringBuilder("UPDATE book SET ");
+        if (patch.name() != null) sql.append("name = ?, ");
+        if (patch.author() != null) sql.append("author = ?, ");
+        if (patch.price() != null) sql.append("price = ?, ");
+        sql.append("version = version + 1 WHERE id = ?");
+        if (patch.expectedVersion() != null) sql.append(" AND version = ?");
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement statement, BookPatch patch) throws SQLException {
+        int index = 1;
+        if (patch.name() != null) statement.setString(index++, patch.name());
+        if (patch.author() != null) statement.setString(index++, patch.author());
+        if (patch.price() != null) statement.setDouble(index++, patch.price());
+        statement.setObject(index++, patch.id());
+        if (patch.expectedVersion() != null) statement.setLong(index, patch.expectedVersion());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.Book;
+
+import java.util.UUID;
+
+/**
+ * The list-view columns of a book, selected by the listing queries instead of the whole entity: no description
+ * is read, kept on the heap or serialized. `getBookById` still returns the full book.
+ */
+public record BookSummary(UUID id, String name, String author, Double price) {
+    // JPQL constructor expression selecting a BookSummary from the alias b
+    static final String SELECT = "SELECT new com.example.bookstore.repository.BookSummary(b.id, b.name, b.author, b.price) FROM Book b";
+
+    public static BookSummary of(Book book) {
+        return new BookSummary(book.getId(), book.getName(), book.getAuthor(), book.getPrice());
+    }
+}
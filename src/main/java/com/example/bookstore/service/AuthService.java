@@ -27,14 +27,16 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JWTTokenService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserService userService;
 
     @Autowired
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JWTTokenService jwtService, AuthenticationManager authenticationManager) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JWTTokenService jwtService, AuthenticationManager authenticationManager, UserService userService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.userService = userService;
     }
 
     // User registration logic
@@ -45,6 +47,7 @@ public class AuthService {
                 .role(Role.USER)
                 .build();
         userRepository.save(user);
+        userService.evict(user);
         return jwtService.generateTokens(user);
     }
 
@@ -56,7 +59,7 @@ public class AuthService {
                         request.getPassword()
                 )
         );
-        var user = userRepository.findByUsername(request.getUsername()).orElseThrow();
+        var user = userService.getUserByUsername(request.getUsername());
         return jwtService.generateTokens(user);
     }
 }
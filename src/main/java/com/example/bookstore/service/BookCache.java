@@ -0,0 +1,152 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.index.BookIndex;
+import com.example.bookstore.repository.BookRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+/**
+ * The `BookCache` class is a read-through cache of books by id, plus a name to id mapping for lookups by name.
+ * Both are size-bounded (W-TinyLFU) with a TTL and are invalidated from `BooksChangedEvent`s.
+ * <p>
+ * Books are only ever loaded inside the cache's per-key computation, and an invalidation of a key waits for
+ * a computation in progress on it, so a load that read the old row cannot be stored after the write that
+ * replaced it. The name mapping only points at an id and is checked against the cached book on every hit.
+ * <p>
+ * With virtual threads enabled, loads run on their own virtual thread and the cache holds only their future:
+ * running the JDBC call inside the cache's per-key lock would pin the carrier thread for the whole query.
+ * An invalidation then drops the in-flight future, so its result is never stored either.
+ */
+@Component
+public class BookCache implements MeterBinder {
+    // Ids per IN query of a bulk load, well below the bind-parameter limits of PostgreSQL and H2
+    static final int BULK_LOAD_CHUNK_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final AsyncLoadingCache<UUID, Book> booksById;
+    private final Cache<String, UUID> idsByName;
+
+    @Autowired
+    public BookCache(BookRepository bookRepository,
+                     @Value("${app.bookCache.maxSize:10000}") long maxSize,
+                     @Value("${app.bookCache.ttlSeconds:600}") long ttlSeconds,
+                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bookRepository = bookRepository;
+        this.booksById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .executor(virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Runnable::run)
+                .buildAsync(new CacheLoader<>() {
+                    @Override
+                    public Book load(UUID id) {
+                        return bookRepository.findById(id).orElse(null);
+                    }
+
+                    @Override
+                    public Map<UUID, Book> loadAll(Set<? extends UUID> ids) {
+                        return loadChunked(ids);
+                    }
+                });
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Book> getById(UUID bookId) {
+        return Optional.ofNullable(load(bookId));
+    }
+
+    // Books for all the given ids that exist; ids missing from the cache are read together in chunked IN queries
+    public Map<UUID, Book> getAllById(Collection<UUID> bookIds) {
+        try {
+            return booksById.getAll(bookIds).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    public Optional<Book> getByName(String name) {
+        var bookId = idsByName.getIfPresent(name);
+        if (bookId != null) {
+            var book = load(bookId);
+            if (book != null && name.equals(book.getName())) {
+                return Optional.of(book);
+            }
+            idsByName.invalidate(name);
+        }
+        var book = bookRepository.findBookByName(name);
+        book.filter(found -> found.getId() != null).ifPresent(found -> idsByName.put(name, found.getId()));
+        return book;
+    }
+
+    // Waiting for the (possibly shared) load, rethrowing what the repository threw
+    private Book load(UUID bookId) {
+        try {
+            return booksById.get(bookId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    // Ids without a row are left out of the result, so they are not cached
+    private Map<UUID, Book> loadChunked(Set<? extends UUID> ids) {
+        var books = new HashMap<UUID, Book>(ids.size() * 2);
+        var chunk = new ArrayList<UUID>(Math.min(ids.size(), BULK_LOAD_CHUNK_SIZE));
+        for (var id : ids) {
+            chunk.add(id);
+            if (chunk.size() == BULK_LOAD_CHUNK_SIZE) {
+                bookRepository.findAllByIdIn(chunk).forEach(book -> books.put(book.getId(), book));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            bookRepository.findAllByIdIn(chunk).forEach(book -> books.put(book.getId(), book));
+        }
+        return books;
+    }
+
+    @EventListener
+    @Order(BookIndex.LISTENER_ORDER)
+    public void onBooksChanged(BooksChangedEvent event) {
+        for (var book : event.saved()) {
+            booksById.synchronous().invalidate(book.getId());
+            if (book.getName() != null) idsByName.invalidate(book.getName());
+        }
+        booksById.synchronous().invalidateAll(event.deleted());
+    }
+
+    // Exporting the hit, miss and eviction counters of both caches as cache.* meters
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, booksById, "books.byId");
+        CaffeineCacheMetrics.monitor(registry, idsByName, "books.idsByName");
+    }
+}
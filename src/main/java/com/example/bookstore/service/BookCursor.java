@@ -0,0 +1,73 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.repository.BookSummary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * The `BookCursor` record is the decoded form of the opaque keyset cursor used by the paginated book listings.
+ * It holds the sort key of the last returned row together with its id, so the next page starts right after it.
+ * Rows without a sort key are listed last, ordered by id; a cursor without a key points into that tail.
+ */
+public record BookCursor(String sort, Double price, String name, UUID id) {
+    public static final String BY_NAME = "name";
+    public static final String BY_PRICE_ASC = "priceAsc";
+    public static final String BY_PRICE_DESC = "priceDesc";
+
+    public static BookCursor byName(BookSummary book) {
+        return new BookCursor(BY_NAME, null, book.name(), book.id());
+    }
+
+    public static BookCursor byPrice(String sort, BookSummary book) {
+        return new BookCursor(sort, book.price(), null, book.id());
+    }
+
+    // Whether the last returned row had no sort key, so the next page continues among the rows without one
+    public boolean inNullTail() {
+        return BY_NAME.equals(sort) ? name == null : price == null;
+    }
+
+    // Encoding the cursor as a URL-safe token
+    public String encode() {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeUTF(sort);
+            out.writeBoolean(inNullTail());
+            if (!inNullTail()) {
+                if (BY_NAME.equals(sort)) out.writeUTF(name);
+                else out.writeDouble(price);
+            }
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    // Decoding a token produced by encode(), checking that it belongs to the expected sort order
+    public static BookCursor decode(String token, String expectedSort) {
+        if (token == null || token.isBlank()) return null;
+        try (var in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            var sort = in.readUTF();
+            if (!sort.equals(expectedSort)) throw new IllegalArgumentException("Invalid cursor");
+            String name = null;
+            Double price = null;
+            boolean inNullTail = in.readBoolean();
+            if (!inNullTail) {
+                if (BY_NAME.equals(sort)) name = in.readUTF();
+                else price = in.readDouble();
+            }
+            var id = new UUID(in.readLong(), in.readLong());
+            return new BookCursor(sort, price, name, id);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
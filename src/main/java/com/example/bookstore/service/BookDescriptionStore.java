@@ -0,0 +1,124 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.BookDescription;
+import com.example.bookstore.repository.BookDescriptionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The `BookDescriptionStore` class reads and writes book descriptions in their own table. Texts of at least
+ * `app.books.descriptionCompressThreshold` UTF-8 bytes are stored gzipped when that makes them smaller; shorter
+ * ones are stored as is, where gzip's header would outweigh the saving.
+ */
+@Component
+public class BookDescriptionStore {
+    // Ids per IN query, well below the bind-parameter limits of PostgreSQL and H2
+    static final int CHUNK_SIZE = 500;
+
+    private final BookDescriptionRepository descriptionRepository;
+    private final int compressThreshold;
+
+    @Autowired
+    public BookDescriptionStore(BookDescriptionRepository descriptionRepository,
+                                @Value("${app.books.descriptionCompressThreshold:1024}") int compressThreshold) {
+        this.descriptionRepository = descriptionRepository;
+        this.compressThreshold = compressThreshold;
+    }
+
+    // Storing or replacing the description of a stored book; a null text leaves the stored one unchanged
+    public void save(UUID bookId, String text) {
+        if (text != null) descriptionRepository.save(encode(bookId, text));
+    }
+
+    // Storing the description of a book just inserted, without the SELECT of a merge
+    public void insert(UUID bookId, String text) {
+        if (text != null) descriptionRepository.save(encodeNew(bookId, text));
+    }
+
+    // Storing the descriptions carried by freshly inserted books, as batched INSERTs only
+    public void saveAll(Collection<Book> books) {
+        var descriptions = new ArrayList<BookDescription>(books.size());
+        for (var book : books) {
+            if (book.getDescription() != null) descriptions.add(encodeNew(book.getId(), book.getDescription()));
+        }
+        descriptionRepository.saveAll(descriptions);
+    }
+
+    public Optional<BookDescription> find(UUID bookId) {
+        return descriptionRepository.findById(bookId);
+    }
+
+    public Optional<String> text(UUID bookId) {
+        return find(bookId).map(BookDescriptionStore::decode);
+    }
+
+    // Texts of many books in chunked IN queries; books without a description are left out
+    public Map<UUID, String> texts(Collection<UUID> bookIds) {
+        var texts = new HashMap<UUID, String>(bookIds.size() * 2);
+        var ids = List.copyOf(bookIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            for (var description : descriptionRepository.findAllByBookIdIn(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))) {
+                texts.put(description.getBookId(), decode(description));
+            }
+        }
+        return texts;
+    }
+
+    public void deleteAll(Collection<UUID> bookIds) {
+        descriptionRepository.deleteAllByBookIdIn(bookIds);
+    }
+
+    private BookDescription encodeNew(UUID bookId, String text) {
+        var description = encode(bookId, text);
+        description.setNew(true);
+        return description;
+    }
+
+    BookDescription encode(UUID bookId, String text) {
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= compressThreshold) {
+            var compressed = new ByteArrayOutputStream(bytes.length / 2 + 64);
+            try (var gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (compressed.size() < bytes.length) {
+                return new BookDescription(bookId, BookDescription.GZIP, bytes.length, compressed.toByteArray());
+            }
+        }
+        return new BookDescription(bookId, BookDescription.PLAIN, bytes.length, bytes);
+    }
+
+    public static String decode(BookDescription description) {
+        try (var in = open(description)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The UTF-8 text as a stream, decompressed while it is read
+    public static InputStream open(BookDescription description) throws IOException {
+        var content = new ByteArrayInputStream(description.getContent());
+        return BookDescription.GZIP.equals(description.getEncoding()) ? new GZIPInputStream(content) : content;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.BookDescription;
+import com.example.bookstore.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * The `BookExportService` class writes the whole catalog to an output stream as NDJSON or CSV.
+ * Books and their descriptions are read through one database cursor and detached row by row, so memory use does
+ * not grow with the table.
+ */
+@Service
+public class BookExportService {
+    private static final String CSV_HEADER = "id,name,author,description,price";
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BookExportService(BookRepository bookRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    // Writing every book to the stream, one line per book
+    @Transactional(readOnly = true)
+    public void export(BookFileFormat format, OutputStream out) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (var books = bookRepository.streamAllWithDescriptions()) {
+            if (format == BookFileFormat.NDJSON) {
+                writeNdjson(books.iterator(), writer);
+            } else {
+                writeCsv(books.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<Object[]> books, Writer writer) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (books.hasNext()) {
+                var row = books.next();
+                var book = (Book) row[0];
+                generator.writeStartObject();
+                generator.writeStringField("id", book.getId().toString());
+                generator.writeStringField("name", book.getName());
+                generator.writeStringField("author", book.getAuthor());
+                generator.writeStringField("description", text(row));
+                if (book.getPrice() == null) {
+                    generator.writeNullField("price");
+                } else {
+                    generator.writeNumberField("price", book.getPrice());
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                detach(row);
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<Object[]> books, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (books.hasNext()) {
+            var row = books.next();
+            var book = (Book) row[0];
+            writer.write(book.getId().toString());
+            writer.write(',');
+            writeCsvField(writer, book.getName());
+            writer.write(',');
+            writeCsvField(writer, book.getAuthor());
+            writer.write(',');
+            writeCsvField(writer, text(row));
+            writer.write(',');
+            if (book.getPrice() != null) {
+                writer.write(book.getPrice().toString());
+            }
+            writer.write('\n');
+            detach(row);
+        }
+    }
+
+    private static String text(Object[] row) {
+        return row[1] == null ? null : BookDescriptionStore.decode((BookDescription) row[1]);
+    }
+
+    private void detach(Object[] row) {
+        entityManager.detach(row[0]);
+        if (row[1] != null) entityManager.detach(row[1]);
+    }
+
+    // Quoting a CSV field only when it contains a separator, a quote or a line break
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) return;
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
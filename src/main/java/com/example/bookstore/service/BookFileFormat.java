@@ -0,0 +1,33 @@
+package com.example.bookstore.service;
+
+/**
+ * File formats supported by the catalog export and the bulk import.
+ */
+public enum BookFileFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    BookFileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static BookFileFormat of(String value) {
+        try {
+            return BookFileFormat.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported file format: " + value);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.book.ImportReportDTO;
+import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.mapper.DtoMapper;
+import com.example.bookstore.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The `BookImportService` class loads large NDJSON or CSV feeds of books. The body is parsed as a stream,
+ * every row is validated, and valid rows are written in batches of `app.import.batchSize` books per transaction
+ * using Hibernate JDBC batching. A failing batch is reported and skipped instead of aborting the whole import.
+ */
+@Service
+public class BookImportService {
+    public static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+
+    private final BookRepository bookRepository;
+    private final BookDescriptionStore descriptionStore;
+    private final EntityManager entityManager;
+    private final DtoMapper dtoMapper;
+    private final ObjectReader bookReader;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    @Autowired
+    public BookImportService(BookRepository bookRepository, BookDescriptionStore descriptionStore,
+                             EntityManager entityManager, DtoMapper dtoMapper,
+                             ObjectMapper objectMapper,
+                             Validator validator, PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${app.import.batchSize:500}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.descriptionStore = descriptionStore;
+        this.entityManager = entityManager;
+        this.dtoMapper = dtoMapper;
+        this.bookReader = objectMapper.readerFor(InsertBookDTO.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    // Importing every row of the body, returning one report per batch
+    public ImportReportDTO importBooks(BookFileFormat format, InputStream in) throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        var batches = new BatchWriter();
+        if (format == BookFileFormat.NDJSON) {
+            readNdjson(reader, batches);
+        } else {
+            readCsv(reader, batches);
+        }
+        return batches.finish();
+    }
+
+    private void readNdjson(BufferedReader reader, BatchWriter batches) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            try {
+                batches.add(lineNumber, bookReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                batches.reject(lineNumber, "JSON parse error");
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, BatchWriter batches) throws IOException {
+        var csv = new CsvReader(reader);
+        var header = csv.next();
+        if (header == null) return;
+        int name = column(header, "name");
+        int author = column(header, "author");
+        int description = column(header, "description");
+        int price = column(header, "price");
+
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            long lineNumber = csv.recordLine;
+            if (record.size() == 1 && record.get(0).isEmpty()) continue;
+            if (record.size() != header.size()) {
+                batches.reject(lineNumber, "Expected " + header.size() + " columns but got " + record.size());
+                continue;
+            }
+            var dto = new InsertBookDTO();
+            dto.setName(emptyToNull(record.get(name)));
+            dto.setAuthor(emptyToNull(record.get(author)));
+            dto.setDescription(emptyToNull(record.get(description)));
+            try {
+                var value = emptyToNull(record.get(price));
+                dto.setPrice(value == null ? null : Double.valueOf(value));
+            } catch (NumberFormatException e) {
+                batches.reject(lineNumber, "Invalid price: " + record.get(price));
+                continue;
+            }
+            batches.add(lineNumber, dto);
+        }
+    }
+
+    private static int column(List<String> header, String name) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(name)) return i;
+        }
+        throw new IllegalArgumentException("CSV header is missing the '" + name + "' column");
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    // Writing one batch and its descriptions in its own transaction; the persistence context is cleared so it never grows
+    void persist(List<Book> books) {
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.saveAll(books);
+            descriptionStore.saveAll(books);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        eventPublisher.publishEvent(BooksChangedEvent.saved(books));
+    }
+
+    /**
+     * Collects validated rows and writes them once a full batch is available.
+     */
+    private class BatchWriter {
+        private final ImportReportDTO report = new ImportReportDTO();
+        private List<Book> books = new ArrayList<>(batchSize);
+        private ImportReportDTO.BatchReportDTO current;
+
+        void add(long line, InsertBookDTO dto) {
+            var violations = validator.validate(dto, InsertBookDTO.Complete.class);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream().map(ConstraintViolation::getMessage).sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            start(line);
+            books.add(dtoMapper.toEntity(dto));
+            if (books.size() == batchSize) {
+                write();
+            }
+        }
+
+        void reject(long line, String message) {
+            start(line);
+            current.getErrors().add("Line " + line + ": " + message);
+            report.setRejected(report.getRejected() + 1);
+        }
+
+        private void start(long line) {
+            report.setTotal(report.getTotal() + 1);
+            if (current == null) {
+                current = new ImportReportDTO.BatchReportDTO();
+                current.setBatch(report.getBatches().size() + 1);
+                current.setFirstLine(line);
+            }
+            current.setLastLine(line);
+        }
+
+        private void write() {
+            if (!books.isEmpty()) {
+                try {
+                    persist(books);
+                    current.setImported(books.size());
+                    report.setImported(report.getImported() + books.size());
+                } catch (RuntimeException e) {
+                    var cause = NestedExceptionUtils.getMostSpecificCause(e);
+                    logger.warn("Import batch {} failed: {}", current.getBatch(), cause.getMessage());
+                    current.getErrors().add("Batch rejected: " + cause.getMessage());
+                    report.setRejected(report.getRejected() + books.size());
+                }
+            }
+            report.getBatches().add(current);
+            current = null;
+            books = new ArrayList<>(batchSize);
+        }
+
+        ImportReportDTO finish() {
+            if (current != null) {
+                write();
+            }
+            return report;
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain separators, doubled quotes and line breaks.
+     */
+    static class CsvReader {
+        private final BufferedReader reader;
+        private long line = 1;
+        long recordLine;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException {
+            int c = reader.read();
+            if (c == -1) return null;
+            recordLine = line;
+            var fields = new ArrayList<String>();
+            var field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (following != -1) reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
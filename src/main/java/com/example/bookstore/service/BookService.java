@@ -1,19 +1,58 @@
 package com.example.bookstore.service;
 
+import com.example.bookstore.dto.CursorPageDTO;
+import com.example.bookstore.dto.OffsetPageDTO;
+import com.example.bookstore.dto.book.BookBatchDTO;
 import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.dto.book.DeleteReportDTO;
+import com.example.bookstore.dto.book.FacetsDTO;
+import com.example.bookstore.dto.book.BookPatchDTO;
 import com.example.bookstore.dto.book.InsertBookDTO;
 import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.BookDescription;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.exception.CustomException;
+import com.example.bookstore.index.BookSearchIndex;
+import com.example.bookstore.index.CatalogFilter;
+import com.example.bookstore.index.ColumnarCatalog;
+import com.example.bookstore.index.FacetCounts;
+import com.example.bookstore.index.FacetIndex;
+import com.example.bookstore.index.PriceIndex;
+import com.example.bookstore.index.Suggestion;
+import com.example.bookstore.index.TypeaheadIndex;
+import com.example.bookstore.mapper.DtoMapper;
+import com.example.bookstore.repository.BookPatch;
 import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.repository.BookSummary;
 import jakarta.persistence.EntityNotFoundException;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * @author oksanapoliakova on 12.03.2024
@@ -22,81 +61,473 @@ import java.util.UUID;
 
 @Service
 public class BookService {
+    // Ids per DELETE ... IN statement, well below the bind-parameter limits of PostgreSQL and H2
+    static final int DELETE_CHUNK_SIZE = 500;
+    // Typeahead suggestions per call when none or too many are asked for
+    static final int DEFAULT_SUGGESTIONS = 10;
+    static final int MAX_SUGGESTIONS = 50;
+
     private final BookRepository bookRepository;
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookSearchIndex bookSearchIndex;
+    private final PriceIndex priceIndex;
+    private final TypeaheadIndex typeaheadIndex;
+    private final FacetIndex facetIndex;
+    private final ColumnarCatalog columnarCatalog;
+    private final BookCache bookCache;
+    private final BookDescriptionStore descriptionStore;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
     public static final Logger logger = LoggerFactory.getLogger(BookService.class);
 
     @Autowired
-    public BookService(BookRepository bookRepository, ModelMapper modelMapper, UserService userService) {
+    public BookService(BookRepository bookRepository, DtoMapper dtoMapper, UserService userService,
+                       ApplicationEventPublisher eventPublisher, BookSearchIndex bookSearchIndex, PriceIndex priceIndex,
+                       TypeaheadIndex typeaheadIndex, FacetIndex facetIndex, ColumnarCatalog columnarCatalog, BookCache bookCache,
+                       BookDescriptionStore descriptionStore, PlatformTransactionManager transactionManager,
+                       @Value("${app.pagination.defaultPageSize:20}") int defaultPageSize,
+                       @Value("${app.pagination.maxPageSize:100}") int maxPageSize,
+                       @Value("${app.books.maxBatchSize:1000}") int maxBatchSize) {
         this.bookRepository = bookRepository;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.bookSearchIndex = bookSearchIndex;
+        this.priceIndex = priceIndex;
+        this.typeaheadIndex = typeaheadIndex;
+        this.facetIndex = facetIndex;
+        this.columnarCatalog = columnarCatalog;
+        this.bookCache = bookCache;
+        this.descriptionStore = descriptionStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
     }
 
+    // Inserting the book and its description in one transaction
     public Book saveBook(InsertBookDTO insertBookDTO) {
-        var book = modelMapper.map(insertBookDTO, Book.class);
+        var book = dtoMapper.toEntity(insertBookDTO);
 
-        return bookRepository.saveAndFlush(book);
+        var savedBook = transactionTemplate.execute(status -> {
+            var saved = bookRepository.saveAndFlush(book);
+            descriptionStore.insert(saved.getId(), book.getDescription());
+            return saved;
+        });
+        eventPublisher.publishEvent(BooksChangedEvent.saved(savedBook));
+        return savedBook;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Book> getBookById(UUID bookId) {
         userService.getAuthenticatedUser();
 
-        return bookRepository.findById(bookId);
+        var book = bookCache.getById(bookId);
+        if (book.isPresent()) typeaheadIndex.recordView(bookId);
+        return book;
+    }
+
+    // Books for many ids at once: one authentication, cached books reused, the rest read in chunked IN queries.
+    // Duplicate ids are answered once, at the position of their first occurrence
+    @Transactional(readOnly = true)
+    public BookBatchDTO<Book> getBooksByIds(List<UUID> bookIds) {
+        userService.getAuthenticatedUser();
+
+        if (bookIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " ids can be requested at once");
+        }
+        var uniqueIds = new LinkedHashSet<UUID>(bookIds);
+        if (uniqueIds.contains(null)) throw new IllegalArgumentException("Ids must not be null");
+        var found = bookCache.getAllById(uniqueIds);
+        var books = new ArrayList<Book>(found.size());
+        var missingIds = new ArrayList<UUID>();
+        for (var bookId : uniqueIds) {
+            var book = found.get(bookId);
+            if (book != null) books.add(book);
+            else missingIds.add(bookId);
+        }
+        return new BookBatchDTO<>(books, missingIds);
     }
 
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    // Keyset page of all books ordered by (name, id), the books without a name last
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookSummary> getAllBooks(String cursor, Integer size) {
+        var limit = pageSize(size);
+        var after = BookCursor.decode(cursor, BookCursor.BY_NAME);
+        List<BookSummary> books;
+        if (after == null) books = bookRepository.findPageOrderByName(Pageable.ofSize(limit + 1));
+        else if (after.inNullTail()) books = List.of();
+        else books = bookRepository.findPageOrderByNameAfter(after.name(), after.id(), Pageable.ofSize(limit + 1));
+        books = withNullTail(books, limit, after, (id, page) -> id == null
+                ? bookRepository.findPageWithoutName(page)
+                : bookRepository.findPageWithoutNameAfter(id, page));
+        return toPage(books, limit, BookCursor::byName);
     }
 
     public Optional<Book> updateBookById(UUID bookId, InsertBookDTO updatedBookDTO) {
+        return updateBookById(bookId, updatedBookDTO, null);
+    }
+
+    // Writing only the given fields with one UPDATE, without reading the row first. With an expected version
+    // the update fails with 409 when the book was changed since; the returned book carries the new version.
+    // The book is read back in the transaction that wrote it: the UPDATE keeps the row locked until commit, so
+    // the version and state returned are this update's, never those of a writer that came in after it
+    public Optional<Book> updateBookById(UUID bookId, InsertBookDTO updatedBookDTO, Long expectedVersion) {
         if (bookId == null) throw new NullPointerException();
 
-        Book book = bookRepository.findById(bookId).orElseThrow(() -> new EntityNotFoundException("Invalid id: " + bookId));
+        var patch = new BookPatch(bookId, expectedVersion, updatedBookDTO.getName(), updatedBookDTO.getAuthor(),
+                updatedBookDTO.getDescription(), updatedBookDTO.getPrice());
+        Book book = transactionTemplate.execute(status -> {
+            if (!patch.isEmpty()) {
+                if (bookRepository.updatePartially(List.of(patch))[0] == 0) throw updateFailure(List.of(bookId));
+                descriptionStore.save(bookId, patch.description());
+            }
+            return bookRepository.findById(bookId).orElseThrow(() -> new EntityNotFoundException("Invalid id: " + bookId));
+        });
+        if (patch.isEmpty()) {
+            if (expectedVersion != null && !expectedVersion.equals(book.getVersion())) throw updateFailure(List.of(bookId));
+            return Optional.of(book);
+        }
+        eventPublisher.publishEvent(BooksChangedEvent.saved(book));
+        return Optional.of(book);
+    }
 
-        if (updatedBookDTO.getName() != null) {
-            book.setName(updatedBookDTO.getName());
+    // Applying many partial updates in one transaction of batched UPDATEs; any missing book or version
+    // conflict rolls all of them back. Books are returned in the order of the patches, read back in the same
+    // transaction like updateBookById
+    public List<Book> patchBooks(List<BookPatchDTO> patchDTOs) {
+        if (patchDTOs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " books can be updated at once");
         }
-        if (updatedBookDTO.getAuthor() != null) {
-            book.setAuthor(updatedBookDTO.getAuthor());
+        var ids = new ArrayList<UUID>(patchDTOs.size());
+        var patches = new ArrayList<BookPatch>(patchDTOs.size());
+        for (var dto : patchDTOs) {
+            var patch = new BookPatch(dto.getId(), dto.getVersion(), dto.getName(), dto.getAuthor(),
+                    dto.getDescription(), dto.getPrice());
+            if (patch.id() == null) throw new IllegalArgumentException("Ids must not be null");
+            if (patch.isEmpty()) throw new IllegalArgumentException("Nothing to update for " + patch.id());
+            ids.add(patch.id());
+            patches.add(patch);
         }
-        if (updatedBookDTO.getDescription() != null) {
-            book.setDescription(updatedBookDTO.getDescription());
+        if (new HashSet<>(ids).size() != ids.size()) throw new IllegalArgumentException("Ids must be unique");
+        if (patches.isEmpty()) return List.of();
+
+        var books = transactionTemplate.execute(status -> {
+            var updated = bookRepository.updatePartially(patches);
+            var failed = new ArrayList<UUID>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) failed.add(ids.get(i));
+            }
+            if (!failed.isEmpty()) throw updateFailure(failed);
+            patches.forEach(patch -> descriptionStore.save(patch.id(), patch.description()));
+            return findAllByIdInOrder(ids);
+        });
+        eventPublisher.publishEvent(BooksChangedEvent.saved(books));
+        return books;
+    }
+
+    // An UPDATE matched no row: either the book does not exist or its version moved on
+    private RuntimeException updateFailure(Collection<UUID> bookIds) {
+        var missing = new LinkedHashSet<>(bookIds);
+        bookRepository.findIdsByIdIn(bookIds).forEach(missing::remove);
+        if (!missing.isEmpty()) {
+            return new EntityNotFoundException(missing.size() == 1 ? "Invalid id: " + missing.iterator().next()
+                    : "Invalid ids: " + missing);
         }
-        if (updatedBookDTO.getPrice() != null) {
-            book.setPrice(updatedBookDTO.getPrice());
+        return new CustomException("Book was changed concurrently, reload it and retry: " + bookIds,
+                HttpStatus.CONFLICT.value());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Book> findBookByName(String name) {
+        return bookCache.getByName(name);
+    }
+
+    // Keyset page of books whose name contains the given part, ordered by (name, id)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookSummary> findBooksByNameContaining(String partOfName, String cursor, Integer size) {
+        var limit = pageSize(size);
+        var after = BookCursor.decode(cursor, BookCursor.BY_NAME);
+        Supplier<List<BookSummary>> fromDatabase = () -> after == null
+                ? bookRepository.findPageByNameContaining(containing(partOfName), Pageable.ofSize(limit + 1))
+                : bookRepository.findPageByNameContainingAfter(containing(partOfName), after.name(), after.id(), Pageable.ofSize(limit + 1));
+        if (bookSearchIndex.isReady()) {
+            var ids = bookSearchIndex.search(BookSearchIndex.Field.NAME, partOfName,
+                    after == null ? null : after.name(), after == null ? null : after.id(), limit + 1);
+            return toPage(findSummariesByIdInOrder(ids, fromDatabase), limit, BookCursor::byName);
         }
+        return toPage(fromDatabase.get(), limit, BookCursor::byName);
+    }
 
-        return Optional.of(bookRepository.save(book));
+    // Keyset page of books whose author contains the given part, ordered by (name, id), the books without a name last.
+    // The index holds named books only, so those without a name are always read from the database
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookSummary> findBooksByAuthorContaining(String author, String cursor, Integer size) {
+        var limit = pageSize(size);
+        var after = BookCursor.decode(cursor, BookCursor.BY_NAME);
+        Supplier<List<BookSummary>> fromDatabase = () -> after == null
+                ? bookRepository.findPageByAuthorContaining(containing(author), Pageable.ofSize(limit + 1))
+                : bookRepository.findPageByAuthorContainingAfter(containing(author), after.name(), after.id(), Pageable.ofSize(limit + 1));
+        List<BookSummary> books;
+        if (after != null && after.inNullTail()) {
+            books = List.of();
+        } else if (bookSearchIndex.isReady()) {
+            var ids = bookSearchIndex.search(BookSearchIndex.Field.AUTHOR, author,
+                    after == null ? null : after.name(), after == null ? null : after.id(), limit + 1);
+            books = findSummariesByIdInOrder(ids, fromDatabase);
+        } else {
+            books = fromDatabase.get();
+        }
+        books = withNullTail(books, limit, after, (id, page) -> id == null
+                ? bookRepository.findPageByAuthorContainingWithoutName(containing(author), page)
+                : bookRepository.findPageByAuthorContainingWithoutNameAfter(containing(author), id, page));
+        return toPage(books, limit, BookCursor::byName);
     }
 
-    public Optional<Book> findBookByName(String name) {
-        return bookRepository.findBookByName(name);
+    // Names and authors starting with the prefix, ignoring case, most popular first. Served from the typeahead
+    // index; until it is ready, from two grouped queries that rank by the number of books only
+    public List<Suggestion> suggest(String prefix, Integer size) {
+        var limit = size == null ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(size, MAX_SUGGESTIONS));
+        if (prefix == null || prefix.isBlank()) return List.of();
+        if (typeaheadIndex.isReady()) {
+            return typeaheadIndex.suggest(prefix, limit);
+        }
+        var lowerPrefix = EscapeCharacter.DEFAULT.escape(prefix.toLowerCase(Locale.ROOT));
+        var suggestions = new ArrayList<Suggestion>(limit * 2);
+        for (var row : bookRepository.countNamesStartingWith(lowerPrefix, Pageable.ofSize(limit))) {
+            suggestions.add(new Suggestion((String) row[0], BookSearchIndex.Field.NAME, ((Number) row[1]).intValue()));
+        }
+        for (var row : bookRepository.countAuthorsStartingWith(lowerPrefix, Pageable.ofSize(limit))) {
+            suggestions.add(new Suggestion((String) row[0], BookSearchIndex.Field.AUTHOR, ((Number) row[1]).intValue()));
+        }
+        suggestions.sort(Comparator.comparingInt(Suggestion::score).reversed());
+        return suggestions.size() > limit ? List.copyOf(suggestions.subList(0, limit)) : suggestions;
     }
 
-    public List<Book> findBooksByNameContaining(String partOfName) {
-        return bookRepository.findByNameContaining(partOfName);
+    // Author counts, price histogram and price range of the whole catalog, or of the books whose name and author
+    // contain the given parts and whose price lies in [minPrice, maxPrice]. The whole catalog is counted by the facet
+    // index and a filtered part by a scan of the columnar catalog when they are ready, else by one grouped query;
+    // not transactional, so the in-memory paths take no connection
+    public FacetsDTO getFacets(String partOfName, String author, Double minPrice, Double maxPrice, Integer authors) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        var limit = pageSize(authors);
+        var filter = new CatalogFilter(partOfName, author, minPrice, maxPrice);
+        if (filter.isEmpty() && facetIndex.isReady()) return facetIndex.facets(limit);
+        if (columnarCatalog.isReady()) return columnarCatalog.facets(filter, limit);
+        var buckets = facetIndex.priceBuckets();
+        var counts = new FacetCounts(buckets);
+        var rows = bookRepository.countByAuthorAndPriceBucket(buckets.edges(),
+                partOfName == null ? null : containing(partOfName),
+                author == null ? null : containing(author), minPrice, maxPrice);
+        for (var row : rows) {
+            counts.addGroup((String) row[0], ((Number) row[1]).intValue(), ((Number) row[2]).longValue(),
+                    (Double) row[3], (Double) row[4]);
+        }
+        return counts.toDTO(limit);
     }
 
-    public List<Book> findBooksByAuthorContaining(String author) {
-        return bookRepository.findByAuthorContaining(author);
+    // Keyset page of books ordered by (price, id) ascending, the books without a price last. The price index
+    // holds priced books only, so those without a price are always read from the database
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookSummary> findBooksByOrderByPriceAsc(String cursor, Integer size) {
+        var limit = pageSize(size);
+        var after = BookCursor.decode(cursor, BookCursor.BY_PRICE_ASC);
+        Supplier<List<BookSummary>> fromDatabase = () -> after == null
+                ? bookRepository.findPageOrderByPriceAsc(Pageable.ofSize(limit + 1))
+                : bookRepository.findPageOrderByPriceAscAfter(after.price(), after.id(), Pageable.ofSize(limit + 1));
+        List<BookSummary> books;
+        if (after != null && after.inNullTail()) {
+            books = List.of();
+        } else if (priceIndex.isReady()) {
+            var ids = after == null
+                    ? priceIndex.ascending(0, null, limit + 1)
+                    : priceIndex.ascending(after.price(), after.id(), limit + 1);
+            books = findSummariesByIdInOrder(ids, fromDatabase);
+        } else {
+            books = fromDatabase.get();
+        }
+        books = withNullTail(books, limit, after, this::findPageWithoutPrice);
+        return toPage(books, limit, book -> BookCursor.byPrice(BookCursor.BY_PRICE_ASC, book));
     }
 
-    public List<Book> findBooksByOrderByPriceAsc() {
-        return bookRepository.findAllByOrderByPriceAsc();
+    // Keyset page of books ordered by (price, id) descending, the books without a price last like in
+    // findBooksByOrderByPriceAsc
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookSummary> findBooksByOrderByPriceDesc(String cursor, Integer size) {
+        var limit = pageSize(size);
+        var after = BookCursor.decode(cursor, BookCursor.BY_PRICE_DESC);
+        Supplier<List<BookSummary>> fromDatabase = () -> after == null
+                ? bookRepository.findPageOrderByPriceDesc(Pageable.ofSize(limit + 1))
+                : bookRepository.findPageOrderByPriceDescAfter(after.price(), after.id(), Pageable.ofSize(limit + 1));
+        List<BookSummary> books;
+        if (after != null && after.inNullTail()) {
+            books = List.of();
+        } else if (priceIndex.isReady()) {
+            var ids = after == null
+                    ? priceIndex.descending(0, null, limit + 1)
+                    : priceIndex.descending(after.price(), after.id(), limit + 1);
+            books = findSummariesByIdInOrder(ids, fromDatabase);
+        } else {
+            books = fromDatabase.get();
+        }
+        books = withNullTail(books, limit, after, this::findPageWithoutPrice);
+        return toPage(books, limit, book -> BookCursor.byPrice(BookCursor.BY_PRICE_DESC, book));
     }
 
-    public List<Book> findBooksByOrderByPriceDesc() {
-        return bookRepository.findAllByOrderByPriceDesc();
+    private List<BookSummary> findPageWithoutPrice(UUID afterId, Pageable pageable) {
+        return afterId == null
+                ? bookRepository.findPageWithoutPrice(pageable)
+                : bookRepository.findPageWithoutPriceAfter(afterId, pageable);
     }
 
+    // Books priced within [min, max] ordered by (price, id), one offset page at a time
+    @Transactional(readOnly = true)
+    public OffsetPageDTO<BookSummary> findBooksByPriceBetween(double min, double max, int offset, Integer size) {
+        if (min > max) throw new IllegalArgumentException("min must not be greater than max");
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        var limit = pageSize(size);
+        if (priceIndex.isReady()) {
+            var range = priceIndex.between(min, max, offset, limit);
+            var books = findSummariesByIdInOrder(range.ids(),
+                    () -> bookRepository.findPageByPriceBetween(min, max, offset, limit));
+            return new OffsetPageDTO<>(books, offset, books.size(), range.total());
+        }
+        var books = bookRepository.findPageByPriceBetween(min, max, offset, limit);
+        return new OffsetPageDTO<>(books, offset, books.size(), bookRepository.countByPriceBetween(min, max));
+    }
+
+    // Deleting with one DELETE statement, without loading the book first
     public void deleteById(UUID bookId) {
         if (bookId == null) throw new NullPointerException();
-        bookRepository.deleteById(bookId);
+        int deleted = transactionTemplate.execute(status -> {
+            descriptionStore.deleteAll(List.of(bookId));
+            return bookRepository.deleteAllByIdIn(List.of(bookId));
+        });
+        if (deleted > 0) {
+            eventPublisher.publishEvent(BooksChangedEvent.deleted(bookId));
+        }
+    }
+
+    // Deleting many books by id in one transaction of chunked DELETE ... WHERE id IN statements
+    public DeleteReportDTO deleteByIds(List<UUID> bookIds) {
+        if (bookIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " ids can be deleted at once");
+        }
+        var uniqueIds = new LinkedHashSet<UUID>(bookIds);
+        if (uniqueIds.contains(null)) throw new IllegalArgumentException("Ids must not be null");
+        return deleteInChunks(new ArrayList<>(uniqueIds));
+    }
+
+    // Deleting every book of the author; only the ids are read, to delete them in chunks and evict them
+    public DeleteReportDTO deleteByAuthor(String author) {
+        if (author == null || author.isBlank()) throw new IllegalArgumentException("Author must not be empty");
+        return deleteInChunks(bookRepository.findIdsByAuthor(author));
     }
 
+    private DeleteReportDTO deleteInChunks(List<UUID> bookIds) {
+        if (bookIds.isEmpty()) return new DeleteReportDTO(0, 0);
+        int deleted = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (int from = 0; from < bookIds.size(); from += DELETE_CHUNK_SIZE) {
+                var chunk = bookIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, bookIds.size()));
+                descriptionStore.deleteAll(chunk);
+                count += bookRepository.deleteAllByIdIn(chunk);
+            }
+            return count;
+        });
+        // Ids that matched no row are harmless to evict, so the caches and indexes get every requested id
+        if (deleted > 0) {
+            eventPublisher.publishEvent(BooksChangedEvent.deleted(bookIds));
+        }
+        return new DeleteReportDTO(bookIds.size(), deleted);
+    }
+
+    // The stored description of a book, for streaming it on its own
+    @Transactional(readOnly = true)
+    public Optional<BookDescription> getDescription(UUID bookId) {
+        userService.getAuthenticatedUser();
+
+        return descriptionStore.find(bookId);
+    }
+
+    // Mapping a book for a detail view; books read from the database carry no description, so it is fetched here
     public BookDTO mapToDTO(Book book) {
-        return modelMapper.map(book, BookDTO.class);
+        var bookDTO = dtoMapper.toDTO(book);
+        if (bookDTO.getDescription() == null && book.getId() != null) {
+            bookDTO.setDescription(descriptionStore.text(book.getId()).orElse(null));
+        }
+        return bookDTO;
+    }
+
+    // Mapping many books for detail views, fetching their descriptions with IN queries
+    public List<BookDTO> mapToDTOs(List<Book> books) {
+        var missing = books.stream().filter(book -> book.getDescription() == null && book.getId() != null)
+                .map(Book::getId).toList();
+        var texts = missing.isEmpty() ? Map.<UUID, String>of() : descriptionStore.texts(missing);
+        return books.stream().map(book -> {
+            var bookDTO = dtoMapper.toDTO(book);
+            if (bookDTO.getDescription() == null) bookDTO.setDescription(texts.get(book.getId()));
+            return bookDTO;
+        }).toList();
+    }
+
+    // LIKE pattern matching values that contain the part literally, its wildcards escaped with a backslash
+    private static String containing(String part) {
+        return "%" + EscapeCharacter.DEFAULT.escape(part) + "%";
+    }
+
+    // Clamping the requested page size to the configured bounds
+    int pageSize(Integer size) {
+        if (size == null) return defaultPageSize;
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    // Loading books by primary key, keeping the order of the given ids
+    private List<Book> findAllByIdInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<UUID, Book> byId = bookRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Loading the list columns of the books an index listed, keeping its order. An id the database no longer has
+    // belongs to a book deleted before the index applied the change; skipping it would leave the page short and,
+    // without its extra row, end the listing early, so the page is then read from the database instead
+    private List<BookSummary> findSummariesByIdInOrder(List<UUID> ids, Supplier<List<BookSummary>> fromDatabase) {
+        if (ids.isEmpty()) return List.of();
+        Map<UUID, BookSummary> byId = bookRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+        if (byId.size() < ids.size()) return fromDatabase.get();
+        return ids.stream().map(byId::get).toList();
+    }
+
+    // Topping up a page that ran out of books with a sort key from the books without one, which follow them ordered
+    // by id: from the first of them, or after the cursor when it already points among them. The tail is given the
+    // id to start after, null for its start
+    private List<BookSummary> withNullTail(List<BookSummary> books, int limit, BookCursor after,
+                                           BiFunction<UUID, Pageable, List<BookSummary>> tail) {
+        if (books.size() > limit) return books;
+        var afterId = after != null && after.inNullTail() ? after.id() : null;
+        var rest = tail.apply(afterId, Pageable.ofSize(limit + 1 - books.size()));
+        if (rest.isEmpty()) return books;
+        var page = new ArrayList<BookSummary>(books.size() + rest.size());
+        page.addAll(books);
+        page.addAll(rest);
+        return page;
+    }
+
+    // The repository is asked for one extra row, which tells whether a next page exists
+    private CursorPageDTO<BookSummary> toPage(List<BookSummary> books, int limit, Function<BookSummary, BookCursor> cursorOf) {
+        if (books.size() <= limit) {
+            return new CursorPageDTO<>(books, null, books.size());
+        }
+        var page = books.subList(0, limit);
+        return new CursorPageDTO<>(page, cursorOf.apply(page.get(limit - 1)).encode(), limit);
     }
 }
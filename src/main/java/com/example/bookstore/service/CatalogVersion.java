@@ -0,0 +1,43 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.event.BooksChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `CatalogVersion` class is a catalog-wide generation counter, bumped by every `BooksChangedEvent`.
+ * Listings derived from the catalog are tagged with it, so an unchanged catalog is answered with 304.
+ * The counter advances after the indexes and the book cache have applied the event (they listen with
+ * `BookIndex.LISTENER_ORDER`); a tag read before the data therefore never runs ahead of it.
+ * <p>
+ * The ETag also carries the start time of this instance: a tag issued before a restart, or by another
+ * instance, never matches, it only costs one full response.
+ */
+@Component
+public class CatalogVersion {
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong generation = new AtomicLong();
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // Read before the data it describes, so a listing is never tagged with a generation newer than its rows
+    public String etag() {
+        return etag(generation.get());
+    }
+
+    public String etag(long generation) {
+        return "\"catalog-" + epoch + "-" + generation + "\"";
+    }
+
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onBooksChanged(BooksChangedEvent event) {
+        generation.incrementAndGet();
+    }
+}
@@ -1,34 +1,55 @@
 package com.example.bookstore.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.bookstore.dto.auth.ResponseTokenDTO;
-import com.example.bookstore.dto.UserDTO;
 import com.example.bookstore.entity.User;
-import org.modelmapper.ModelMapper;
+import com.example.bookstore.mapper.DtoMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The `JWTTokenService` class is responsible for generating and validating JWT tokens.
+ * Tokens that passed verification are cached by their SHA-256 digest until they expire,
+ * so a client reusing the same bearer token is not verified with HMAC-512 on every request.
  */
 
 @Service
 public class JWTTokenService {
     public static final String CLAIM_ROLE_AUTHORITY = "roleAuthority";
-    private final String jwtSecret;
     private final Integer jwtExpirationMs;
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final Cache<String, DecodedJWT> verifiedTokens;
 
     public JWTTokenService(@Value("${app.jwtSecret}") String jwtSecret,
                            @Value("${app.jwtExpirationMs}") Integer jwtExpirationMs,
-                           ModelMapper modelMapper) {
-        this.jwtSecret = jwtSecret;
+                           @Value("${app.jwtCacheMaxSize:10000}") long jwtCacheMaxSize,
+                           DtoMapper dtoMapper) {
         this.jwtExpirationMs = jwtExpirationMs;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        // Algorithm and JWTVerifier are immutable and thread-safe, so one instance serves every request
+        this.algorithm = Algorithm.HMAC512(jwtSecret);
+        this.verifier = JWT.require(algorithm).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
 
     // Generating an access token with user ID and email as claims
@@ -37,29 +58,77 @@ public class JWTTokenService {
                 .withClaim("email", userEmail)
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date((new Date()).getTime() + jwtExpirationMs))
-                .sign(Algorithm.HMAC512(jwtSecret));
+                .sign(algorithm);
     }
 
-    // Validating a JWT token
-    public boolean validate(String token) {
-        var validation = JWT.require(Algorithm.HMAC512(jwtSecret)).build();
+    // Verifying a JWT token, answering from the cache when the same token was verified before
+    public Optional<DecodedJWT> verify(String token) {
+        if (token == null) return Optional.empty();
+        var key = digest(token);
+        var cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (cached.getExpiresAtAsInstant().toEpochMilli() > System.currentTimeMillis()) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.invalidate(key);
+            return Optional.empty();
+        }
         try {
-            validation.verify(token);
-            return true;
+            var decoded = verifier.verify(token);
+            if (decoded.getExpiresAtAsInstant() != null) {
+                verifiedTokens.put(key, decoded);
+            }
+            return Optional.of(decoded);
         } catch (JWTVerificationException e) {
-            return false;
+            return Optional.empty();
         }
     }
 
+    // Validating a JWT token
+    public boolean validate(String token) {
+        return verify(token).isPresent();
+    }
+
     // Extracting the subject (user ID) from a JWT token
     public String getSubject(String token) {
-        return JWT.decode(token).getSubject();
+        return verify(token).map(DecodedJWT::getSubject).orElseGet(() -> JWT.decode(token).getSubject());
     }
 
     // Generating tokens (access token) for a user
     public ResponseTokenDTO generateTokens(User user) {
         var accessToken = generateAccessToken(user.getId().toString(), user.getUsername());
-        var userDTO = modelMapper.map(user, UserDTO.class);
+        var userDTO = dtoMapper.toDTO(user);
         return new ResponseTokenDTO(userDTO, accessToken, jwtExpirationMs);
     }
-}
\ No newline at end of file
+
+    // The cache is keyed by a digest so that it never retains the bearer tokens themselves
+    private static String digest(String token) {
+        try {
+            var sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Expires every cache entry at the `exp` claim of its token.
+     */
+    private static class TokenExpiry implements Expiry<String, DecodedJWT> {
+        @Override
+        public long expireAfterCreate(String key, DecodedJWT token, long currentTime) {
+            long remainingMs = token.getExpiresAtAsInstant().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, DecodedJWT token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, DecodedJWT token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
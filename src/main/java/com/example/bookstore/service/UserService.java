@@ -3,36 +3,88 @@ package com.example.bookstore.service;
 import com.example.bookstore.entity.User;
 import com.example.bookstore.exception.CustomException;
 import com.example.bookstore.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.UUID;
 
 /**
  * @author oksanapoliakova on 15.03.2024
  * @projectName BookStore
  */
+
+/**
+ * The `UserService` class resolves users by id and by username. Resolved users are cached under both keys
+ * with a size bound and a TTL, and must be evicted through `evict` whenever a user is registered or changed.
+ * As a `UserDetailsPasswordService` it stores the rehashed password when a login finds a hash weaker than the
+ * configured BCrypt strength.
+ */
 @Service
-public final class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     UserRepository userRepository;
+    private final Cache<UUID, User> usersById;
+    private final Cache<String, User> usersByUsername;
+
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository,
+                       @Value("${app.userCache.maxSize:10000}") long userCacheMaxSize,
+                       @Value("${app.userCache.ttlSeconds:300}") long userCacheTtlSeconds) {
         this.userRepository = userRepository;
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(userCacheTtlSeconds))
+                .build();
+        this.usersByUsername = Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(userCacheTtlSeconds))
+                .build();
     }
 
+    // Read-only, so a cache miss is served by a replica when replicas are configured
+    @Transactional(readOnly = true)
     public User getUserById(UUID id) {
-        return userRepository.findById(id).orElseThrow();
+        var user = usersById.getIfPresent(id);
+        if (user == null) {
+            user = userRepository.findById(id).orElseThrow();
+            cache(user);
+        }
+        return user;
+    }
+
+    public User getUserByUsername(String username) {
+        var user = usersByUsername.getIfPresent(username);
+        if (user == null) {
+            user = userRepository.findByUsername(username).orElseThrow();
+            cache(user);
+        }
+        return user;
     }
 
+    // The JwtFilter stores the resolved User as principal, so within a request it is never looked up again
     public User getAuthenticatedUser() {
         try {
-            var username = SecurityContextHolder.getContext().getAuthentication().getName();
-            return userRepository.findByUsername(username).orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND.value()));
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication.getPrincipal() instanceof User user) {
+                return user;
+            }
+            var username = authentication.getName();
+            var user = usersByUsername.getIfPresent(username);
+            if (user == null) {
+                user = userRepository.findByUsername(username).orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND.value()));
+                cache(user);
+            }
+            return user;
         } catch (Exception e) {
             throw new CustomException("User not authenticated", HttpStatus.FORBIDDEN.value());
         }
@@ -41,9 +93,30 @@ public final class UserService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) {
         try {
-            return userRepository.findByUsername(username).orElseThrow();
+            return getUserByUsername(username);
         } catch (Throwable e) {
             throw new RuntimeException(e);
         }
     }
+
+    // Replacing the stored hash after a successful login with an outdated one
+    @Override
+    public UserDetails updatePassword(UserDetails details, String newPassword) {
+        var user = userRepository.findByUsername(details.getUsername()).orElseThrow();
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        evict(user);
+        return user;
+    }
+
+    // Removing a user from both caches, to be called after the user was registered or changed
+    public void evict(User user) {
+        if (user.getId() != null) usersById.invalidate(user.getId());
+        if (user.getUsername() != null) usersByUsername.invalidate(user.getUsername());
+    }
+
+    private void cache(User user) {
+        if (user.getId() != null) usersById.put(user.getId(), user);
+        if (user.getUsername() != null) usersByUsername.put(user.getUsername(), user);
+    }
 }
@@ -0,0 +1,18 @@
+-- Tables as Hibernate created them under ddl-auto=update
+CREATE TABLE book
+(
+    id          uuid         NOT NULL PRIMARY KEY,
+    name        varchar(255),
+    author      varchar(255),
+    description varchar(255),
+    price       float(53),
+    version     bigint       NOT NULL DEFAULT 0
+);
+
+CREATE TABLE bookstore_user
+(
+    id       uuid         NOT NULL PRIMARY KEY,
+    username varchar(255),
+    password varchar(255),
+    role     varchar(255) CHECK (role IN ('USER', 'ADMIN'))
+);
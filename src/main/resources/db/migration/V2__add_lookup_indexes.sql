@@ -0,0 +1,12 @@
+-- Login and every authenticated request look the user up by name; usernames were only unique by convention
+CREATE UNIQUE INDEX bookstore_user_username_idx ON bookstore_user (username);
+
+-- Keyset pages are ordered by (price, id) and (name, id); the leading column also serves
+-- price ranges and findBookByName
+CREATE INDEX book_price_id_idx ON book (price, id);
+CREATE INDEX book_name_id_idx ON book (name, id);
+
+-- LIKE '%...%' searches on name and author cannot use a btree; trigram GIN indexes serve them
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX book_name_trgm_idx ON book USING gin (name gin_trgm_ops);
+CREATE INDEX book_author_trgm_idx ON book USING gin (author gin_trgm_ops);
@@ -0,0 +1,19 @@
+-- Descriptions move out of the book row, so that listings, the book cache and the index loader never read them.
+-- content is the UTF-8 text, gzipped when encoding = 'gzip'; existing texts are short and stay plain
+CREATE TABLE book_description
+(
+    book_id       uuid        NOT NULL PRIMARY KEY REFERENCES book (id) ON DELETE CASCADE,
+    encoding      varchar(16) NOT NULL,
+    original_size integer     NOT NULL,
+    content       bytea       NOT NULL
+);
+
+-- Stored out of line without TOAST compression: gzipped content would not shrink further
+ALTER TABLE book_description ALTER COLUMN content SET STORAGE EXTERNAL;
+
+INSERT INTO book_description (book_id, encoding, original_size, content)
+SELECT id, 'plain', octet_length(convert_to(description, 'UTF8')), convert_to(description, 'UTF8')
+FROM book
+WHERE description IS NOT NULL;
+
+ALTER TABLE book DROP COLUMN description;
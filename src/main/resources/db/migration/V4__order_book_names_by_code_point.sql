@@ -0,0 +1,4 @@
+-- Names sort and compare by code point (the C collation, i.e. UTF-8 byte order), as the in-memory search index
+-- does, so that (name, id) pages and cursors agree whichever side serves them. Changing the column's collation
+-- rebuilds book_name_id_idx and the trigram index with it; the keyset predicates need no COLLATE clause
+ALTER TABLE book ALTER COLUMN name TYPE varchar(255) COLLATE "C";
@@ -0,0 +1,95 @@
+package com.example.bookstore;
+
+import com.example.bookstore.dto.CursorPageDTO;
+import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.repository.BookSummary;
+import com.example.bookstore.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages through the keyset listings of books saved the way `POST /add` saves them, which accepts books without a
+ * name or price: those are listed after all others rather than dropped.
+ */
+@SpringBootTest
+class BookListingTests {
+
+    private static final String AUTHOR = "Listing Author";
+
+    @Autowired
+    BookService bookService;
+
+    private final List<UUID> saved = new ArrayList<>();
+    private UUID unnamed;
+    private UUID unpriced;
+
+    @BeforeEach
+    void saveBooks() {
+        save("Listing A", 10.0);
+        save("Listing B", 20.0);
+        save("Listing C", 30.0);
+        unnamed = save(null, 15.0);
+        unpriced = save("Listing D", null);
+    }
+
+    @AfterEach
+    void deleteBooks() {
+        bookService.deleteByIds(saved);
+    }
+
+    private UUID save(String name, Double price) {
+        var dto = new InsertBookDTO();
+        dto.setName(name);
+        dto.setAuthor(AUTHOR);
+        dto.setPrice(price);
+        var id = bookService.saveBook(dto).getId();
+        saved.add(id);
+        return id;
+    }
+
+    // Following the cursors from the first page to the last, two books per page
+    private static List<BookSummary> pageThrough(Function<String, CursorPageDTO<BookSummary>> listing) {
+        var books = new ArrayList<BookSummary>();
+        String cursor = null;
+        do {
+            var page = listing.apply(cursor);
+            books.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return books;
+    }
+
+    private List<UUID> ours(List<BookSummary> books) {
+        return books.stream().map(BookSummary::id).filter(saved::contains).toList();
+    }
+
+    @Test
+    void booksWithoutANameAreListedLastByName() {
+        var all = pageThrough(cursor -> bookService.getAllBooks(cursor, 2));
+        assertEquals(List.of(saved.get(0), saved.get(1), saved.get(2), unpriced, unnamed), ours(all));
+        var firstUnnamed = all.stream().map(BookSummary::name).toList().indexOf(null);
+        assertTrue(all.subList(firstUnnamed, all.size()).stream().allMatch(book -> book.name() == null));
+
+        var byAuthor = pageThrough(cursor -> bookService.findBooksByAuthorContaining(AUTHOR, cursor, 2));
+        assertEquals(List.of(saved.get(0), saved.get(1), saved.get(2), unpriced, unnamed), ours(byAuthor));
+    }
+
+    @Test
+    void booksWithoutAPriceAreListedLastInBothPriceOrders() {
+        var ascending = ours(pageThrough(cursor -> bookService.findBooksByOrderByPriceAsc(cursor, 2)));
+        assertEquals(List.of(saved.get(0), unnamed, saved.get(1), saved.get(2), unpriced), ascending);
+
+        var descending = ours(pageThrough(cursor -> bookService.findBooksByOrderByPriceDesc(cursor, 2)));
+        assertEquals(List.of(saved.get(2), saved.get(1), unnamed, saved.get(0), unpriced), descending);
+    }
+}
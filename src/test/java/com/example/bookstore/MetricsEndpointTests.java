@@ -0,0 +1,60 @@
+package com.example.bookstore;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"management.server.port=0",
+        "management.endpoints.web.exposure.include=health,metrics,prometheus",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true"})
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTests {
+
+    @LocalServerPort
+    int port;
+    @LocalManagementPort
+    int managementPort;
+    @Autowired
+    RestTemplateBuilder restTemplateBuilder;
+
+    // A client that returns error responses instead of throwing
+    private RestTemplate lenientRest() {
+        return restTemplateBuilder.errorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        }).build();
+    }
+
+    @Test
+    void prometheusIsServedOnTheManagementPort() {
+        var rest = lenientRest();
+        rest.getForEntity("http://localhost:" + port + "/api/books/facets", String.class);
+
+        var scrape = rest.getForObject("http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertNotNull(scrape);
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket"));
+        assertTrue(scrape.contains("hikaricp_connections_active"));
+        assertTrue(scrape.contains("auth_jwt_verification_seconds"));
+        assertTrue(scrape.contains("password_hashing_queue_depth"));
+        assertTrue(scrape.contains("cache_gets_total{cache=\"books.byId\""));
+    }
+
+    @Test
+    void actuatorIsNotServedOnTheApplicationPort() {
+        var response = lenientRest().getForEntity("http://localhost:" + port + "/actuator/prometheus", String.class);
+
+        assertNotEquals(200, response.getStatusCode().value());
+    }
+}
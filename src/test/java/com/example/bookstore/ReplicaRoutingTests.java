@@ -0,0 +1,35 @@
+package com.example.bookstore;
+
+import com.example.bookstore.config.ReplicaRoutingDataSource;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.entity.Role;
+import com.example.bookstore.repository.UserRepository;
+import com.example.bookstore.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"app.datasource.replicas=jdbc:h2:mem:testdb", "app.datasource.readYourWritesMs=0"})
+class ReplicaRoutingTests {
+    @Autowired
+    ReplicaRoutingDataSource routing;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserService userService;
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void userByIdIsReadFromTheReplica() {
+        var user = userRepository.save(User.builder().username("replica-user").password("x").role(Role.USER).build());
+        double before = registry.get("datasource.reads").tag("target", "replica").functionCounter().count();
+
+        assertEquals("replica-user", userService.getUserById(user.getId()).getUsername());
+
+        assertEquals(before + 1, registry.get("datasource.reads").tag("target", "replica").functionCounter().count());
+    }
+}
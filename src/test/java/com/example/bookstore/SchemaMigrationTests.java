@@ -0,0 +1,83 @@
+package com.example.bookstore;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations against a real PostgreSQL, lets Hibernate validate the entities against the
+ * resulting schema, and checks that the planner picks the migration's indexes. Skipped when Docker is unavailable.
+ */
+@SpringBootTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"})
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaMigrationTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void populate() {
+        jdbcTemplate.execute("""
+                INSERT INTO book (id, name, author, price, version)
+                SELECT gen_random_uuid(), 'Book ' || i, 'Author ' || (i % 500), i % 1000 + 0.99, 0
+                FROM generate_series(1, 20000) i""");
+        jdbcTemplate.execute("""
+                INSERT INTO bookstore_user (id, username, password, role)
+                SELECT gen_random_uuid(), 'user' || i, 'password', 'USER' FROM generate_series(1, 5000) i""");
+        jdbcTemplate.execute("ANALYZE book");
+        jdbcTemplate.execute("ANALYZE bookstore_user");
+    }
+
+    private String plan(String query) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+    }
+
+    @Test
+    void usernameIsUniqueAndIndexed() {
+        assertTrue(plan("SELECT * FROM bookstore_user WHERE username = 'user42'").contains("bookstore_user_username_idx"));
+        assertThrows(Exception.class, () -> jdbcTemplate.update(
+                "INSERT INTO bookstore_user (id, username, password, role) VALUES (gen_random_uuid(), 'user42', 'x', 'USER')"));
+    }
+
+    @Test
+    void priceSortAndRangeUseThePriceIndex() {
+        assertTrue(plan("SELECT * FROM book WHERE price IS NOT NULL ORDER BY price, id LIMIT 20").contains("book_price_id_idx"));
+        assertTrue(plan("SELECT * FROM book WHERE price > 500.99 OR (price = 500.99 AND id > gen_random_uuid()) "
+                + "ORDER BY price, id LIMIT 20").contains("book_price_id_idx"));
+        assertTrue(plan("SELECT * FROM book WHERE price BETWEEN 10 AND 11").contains("book_price_id_idx"));
+    }
+
+    @Test
+    void nameLookupUsesTheNameIndex() {
+        assertTrue(plan("SELECT * FROM book WHERE name = 'Book 4242'").contains("book_name_id_idx"));
+    }
+
+    @Test
+    void namesUseTheCCollationAndTheKeysetPredicateKeepsTheNameIndex() {
+        assertEquals("C", jdbcTemplate.queryForObject(
+                "SELECT collation_name FROM information_schema.columns WHERE table_name = 'book' AND column_name = 'name'", String.class));
+        assertTrue(plan("SELECT * FROM book WHERE name > 'Book 4242' OR (name = 'Book 4242' AND id > gen_random_uuid()) "
+                + "ORDER BY name, id LIMIT 20").contains("book_name_id_idx"));
+    }
+
+    @Test
+    void containingSearchesUseTheTrigramIndexes() {
+        assertTrue(plan("SELECT * FROM book WHERE name LIKE '%ook 1234%'").contains("book_name_trgm_idx"));
+        assertTrue(plan("SELECT * FROM book WHERE author LIKE '%thor 123%'").contains("book_author_trgm_idx"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.bookstore.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final List<String> urls = List.of(url("primary"), url("replica-a"), url("replica-b"));
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    // An embedded database that answers with its own name
+    private DataSource database(String url, String name) {
+        var dataSource = new DriverManagerDataSource(url, "sa", "");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE origin (name VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO origin VALUES (?)", name);
+        return dataSource;
+    }
+
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+
+    private void init(List<DataSource> replicas, long readYourWritesMs) {
+        routing = new ReplicaRoutingDataSource(database(urls.get(0), "primary"), replicas, readYourWritesMs, 60_000);
+        var dataSource = new LazyConnectionDataSourceProxy(routing);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void shutdown() {
+        for (var url : urls) {
+            try {
+                new JdbcTemplate(new DriverManagerDataSource(url, "sa", "")).execute("SHUTDOWN");
+            } catch (RuntimeException ignored) {
+                // never opened by this test
+            }
+        }
+    }
+
+    private String origin() {
+        return jdbcTemplate.queryForObject("SELECT name FROM origin", String.class);
+    }
+
+    private String read() {
+        return readTransaction.execute(status -> origin());
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicasInTurn() {
+        init(List.of(database(urls.get(1), "replica-a"), database(urls.get(2), "replica-b")), 0);
+
+        assertEquals("replica-a", read());
+        assertEquals("replica-b", read());
+        assertEquals("replica-a", read());
+        assertEquals("primary", writeTransaction.execute(status -> origin()));
+        assertEquals("primary", origin());
+    }
+
+    @Test
+    void readsStayOnThePrimaryRightAfterAWrite() {
+        init(List.of(database(urls.get(1), "replica-a")), 60_000);
+        assertEquals("replica-a", read());
+
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE origin SET name = name"));
+
+        assertEquals("primary", read());
+    }
+
+    @Test
+    void aRolledBackWriteDoesNotPinReadsToThePrimary() {
+        init(List.of(database(urls.get(1), "replica-a")), 60_000);
+
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE origin SET name = name");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica-a", read());
+    }
+
+    @Test
+    void aFailingReplicaIsExcludedAndReadsFallBack() {
+        var attempts = new AtomicInteger();
+        var broken = new DriverManagerDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                attempts.incrementAndGet();
+                throw new SQLException("Connection refused");
+            }
+        };
+        init(List.of(broken, database(urls.get(1), "replica-a")), 0);
+
+        assertEquals("replica-a", read());
+        assertEquals("replica-a", read());
+        assertEquals("replica-a", read());
+        assertEquals(1, attempts.get());
+        assertEquals(1, routing.healthyReplicas());
+    }
+
+    @Test
+    void readsGoToThePrimaryWhenNoReplicaAnswers() {
+        var broken = new DriverManagerDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("Connection refused");
+            }
+        };
+        init(List.of(broken), 0);
+
+        assertEquals("primary", read());
+        assertEquals(0, routing.healthyReplicas());
+    }
+
+    @Test
+    void connectionsWithExplicitCredentialsComeFromThePrimary() throws SQLException {
+        init(List.of(database(urls.get(1), "replica-a")), 0);
+
+        try (var connection = routing.getConnection("sa", "");
+             var result = connection.createStatement().executeQuery("SELECT name FROM origin")) {
+            assertTrue(result.next());
+            assertEquals("primary", result.getString(1));
+        }
+    }
+}
@@ -1,12 +1,30 @@
 package com.example.bookstore.controller;
 
+import com.example.bookstore.dto.CursorPageDTO;
+import com.example.bookstore.dto.OffsetPageDTO;
+import com.example.bookstore.dto.book.AuthorCountDTO;
+import com.example.bookstore.dto.book.BookBatchDTO;
 import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.dto.book.DeleteReportDTO;
+import com.example.bookstore.dto.book.FacetsDTO;
+import com.example.bookstore.dto.book.ImportReportDTO;
 import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.dto.book.PriceBucketDTO;
 import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.BookDescription;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.index.BookSearchIndex;
+import com.example.bookstore.index.Suggestion;
 import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.repository.BookSummary;
+import com.example.bookstore.service.BookExportService;
+import com.example.bookstore.service.BookFileFormat;
+import com.example.bookstore.service.BookImportService;
 import com.example.bookstore.service.BookService;
+import com.example.bookstore.service.CatalogVersion;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,10 +34,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -32,9 +53,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -55,31 +82,152 @@ class BookControllerTest {
     BookService bookService;
 
     @Mock
-    ModelMapper modelMapper;
+    BookExportService bookExportService;
+
+    @Mock
+    BookImportService bookImportService;
+
     private static HttpHeaders headers;
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    CatalogVersion catalogVersion;
+
     @InjectMocks
     BookController bookController;
     private MockMvc mockMvc; // like real request
 
     @BeforeEach
     void setUp() {
-        bookController = new BookController(bookService);
+        catalogVersion = new CatalogVersion();
+        bookController = new BookController(bookService, bookExportService, bookImportService, catalogVersion,
+                new ListingResponseCache(new ObjectMapper(), catalogVersion, 1 << 20, false));
         mockMvc = MockMvcBuilders.standaloneSetup(bookController).build();
         objectMapper = new ObjectMapper();
     }
 
     @Test
     void getAllBooksEndpointTest() throws Exception {
+        when(bookService.getAllBooks(any(), any())).thenReturn(new CursorPageDTO<>(List.of(), null, 0));
+
         mockMvc.perform(get("/api/books/getAllBooks")).andExpect(status().isOk());
     }
 
+    @Test
+    void getAllBooksIsNotModifiedWhileTheCatalogIsUnchanged() throws Exception {
+        when(bookService.getAllBooks(any(), any())).thenReturn(new CursorPageDTO<>(List.of(), null, 0));
+        var etag = mockMvc.perform(get("/api/books/getAllBooks"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/books/getAllBooks").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/books/getAllBooks"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(bookService, times(1)).getAllBooks(any(), any());
+
+        catalogVersion.onBooksChanged(BooksChangedEvent.deleted(UUID.randomUUID()));
+        mockMvc.perform(get("/api/books/getAllBooks"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(bookService, timeout(5000).times(2)).getAllBooks(any(), any());
+        var latest = etag;
+        for (int i = 0; i < 250 && latest.equals(etag); i++) {
+            Thread.sleep(20);
+            latest = mockMvc.perform(get("/api/books/getAllBooks")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        }
+        assertEquals(catalogVersion.etag(), latest);
+    }
+
+    @Test
+    void getAllBooksIsServedGzippedWhenAccepted() throws Exception {
+        when(bookService.getAllBooks(any(), any())).thenReturn(new CursorPageDTO<>(List.of(), null, 0));
+
+        var body = mockMvc.perform(get("/api/books/getAllBooks").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(0, objectMapper.readTree(in).get("size").asInt());
+        }
+    }
+
+    // A description as the store keeps it once it passes the compression threshold
+    private static BookDescription gzipped(UUID bookId, String text) throws IOException {
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return new BookDescription(bookId, BookDescription.GZIP, bytes.length, compressed.toByteArray());
+    }
+
+    @Test
+    void getBookDescriptionSendsTheStoredGzipWhenAccepted() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        var text = "A long description. ".repeat(200);
+        var description = gzipped(bookId, text);
+        when(bookService.getDescription(bookId)).thenReturn(Optional.of(description));
+
+        var body = mockMvc.perform(get("/api/books/{bookId}/description", bookId).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(description.getContent(), body);
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(text, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void getBookDescriptionDecompressesForOtherClients() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        var text = "A long description. ".repeat(200);
+        when(bookService.getDescription(bookId)).thenReturn(Optional.of(gzipped(bookId, text)));
+
+        mockMvc.perform(get("/api/books/{bookId}/description", bookId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, text.length()))
+                .andExpect(content().string(text));
+    }
+
+    @Test
+    void getBookDescriptionOfABookWithoutOneIsNotFound() {
+        UUID bookId = UUID.randomUUID();
+        when(bookService.getDescription(bookId)).thenReturn(Optional.empty());
+
+        var thrown = assertThrows(Exception.class, () -> mockMvc.perform(get("/api/books/{bookId}/description", bookId)));
+        assertInstanceOf(EntityNotFoundException.class, thrown.getCause());
+    }
+
     @Test
     void sortBookByPriceAscEndpointTest() throws Exception {
         mockMvc.perform(get("/api/books/sortByPriceAsc")).andExpect(status().isOk());
     }
 
+    @Test
+    void priceBetweenEndpointTest() throws Exception {
+        var book = new BookSummary(UUID.randomUUID(), "Book1", "Author1", 15.0);
+        when(bookService.findBooksByPriceBetween(10.0, 20.0, 5, 2)).thenReturn(new OffsetPageDTO<>(List.of(book), 5, 1, 6));
+
+        mockMvc.perform(get("/api/books/priceBetween")
+                        .param("min", "10")
+                        .param("max", "20")
+                        .param("offset", "5")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(6))
+                .andExpect(jsonPath("$.items[0].price").value(15.0))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                .andExpect(result -> assertEquals(1, result.getResponse().getHeaders(HttpHeaders.ETAG).size()));
+    }
+
     @Test
     void getBookByNameEndpointTest() throws Exception {
         String bookName = "Book2";
@@ -97,11 +245,10 @@ class BookControllerTest {
     @Test
     void getBookByAuthor() throws Exception {
         String author = "Author";
-        Book book = new Book();
-        book.setAuthor(author);
-        List listOfBooks = List.of(book);
+        var book = new BookSummary(UUID.randomUUID(), "Book1", author, 10.0);
+        var page = new CursorPageDTO<>(List.of(book), null, 1);
 
-        when(bookService.findBooksByAuthorContaining(anyString())).thenReturn(listOfBooks);
+        when(bookService.findBooksByAuthorContaining(anyString(), any(), any())).thenReturn(page);
 
         mockMvc.perform(get("/api/books/searchByAuthor")
                         .param("author", author)
@@ -112,11 +259,10 @@ class BookControllerTest {
     @Test
     void findBookByPartOfNameEndpointTest() throws Exception {
         String bookName = "Book2";
-        Book book = new Book();
-        book.setName(bookName);
-        List listOfBooks = List.of(book);
+        var book = new BookSummary(UUID.randomUUID(), bookName, "Author2", 20.0);
+        var page = new CursorPageDTO<>(List.of(book), null, 1);
 
-        when(bookService.findBooksByNameContaining(anyString())).thenReturn(listOfBooks);
+        when(bookService.findBooksByNameContaining(anyString(), any(), any())).thenReturn(page);
 
         mockMvc.perform(get("/api/books/searchBooksByName")
                     .param("partOfName", bookName)
@@ -139,12 +285,92 @@ class BookControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void getBookByIdIsNotModifiedForTheSameVersion() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        Book book = new Book();
+        book.setId(bookId);
+        book.setVersion(2L);
+
+        when(bookService.getBookById(bookId)).thenReturn(Optional.of(book));
+
+        mockMvc.perform(get("/api/books/{bookId}", bookId).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books/{bookId}", bookId).header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+        verify(bookService, times(1)).mapToDTO(book);
+    }
+
+    @Test
+    void getBooksByIdsEndpointTest() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        Book book = new Book();
+        book.setId(bookId);
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(bookId);
+
+        when(bookService.getBooksByIds(List.of(bookId, missingId))).thenReturn(new BookBatchDTO<>(List.of(book), List.of(missingId)));
+        when(bookService.mapToDTOs(List.of(book))).thenReturn(List.of(bookDTO));
+
+        mockMvc.perform(post("/api/books/byIds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[\"" + bookId + "\",\"" + missingId + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].id").value(bookId.toString()))
+                .andExpect(jsonPath("$.missingIds[0]").value(missingId.toString()));
+    }
+
+    @Test
+    void suggestEndpointTest() throws Exception {
+        when(bookService.suggest("jav", 5)).thenReturn(List.of(
+                new Suggestion("Java Basic", BookSearchIndex.Field.NAME, 3),
+                new Suggestion("Javier Marías", BookSearchIndex.Field.AUTHOR, 2)));
+
+        mockMvc.perform(get("/api/books/suggest").param("prefix", "jav").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Java Basic"))
+                .andExpect(jsonPath("$[0].field").value("NAME"))
+                .andExpect(jsonPath("$[1].field").value("AUTHOR"))
+                .andExpect(jsonPath("$[1].score").value(2));
+    }
+
+    @Test
+    void facetsEndpointTest() throws Exception {
+        var facets = new FacetsDTO(2, 10.0, 45.0, 2, List.of(new AuthorCountDTO("Bruce Eckel", 1)),
+                List.of(new PriceBucketDTO(null, 20.0, 1), new PriceBucketDTO(20.0, null, 1)));
+        when(bookService.getFacets(null, "e", 10.0, null, 1)).thenReturn(facets);
+
+        mockMvc.perform(get("/api/books/facets").param("author", "e").param("minPrice", "10").param("authors", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.etag()))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.maxPrice").value(45.0))
+                .andExpect(jsonPath("$.authors[0].author").value("Bruce Eckel"))
+                .andExpect(jsonPath("$.priceBuckets[1].from").value(20.0))
+                .andExpect(jsonPath("$.priceBuckets[1].to").doesNotExist());
+    }
+
     @Test
     public void getBookByNameWhenNoParamTest() throws Exception {
         this.mockMvc.perform(get("/api/books/getBookByName"))
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getAllBooksPassesCursorAndSizeTest() throws Exception {
+        when(bookService.getAllBooks("abc", 5)).thenReturn(new CursorPageDTO<>(List.of(), null, 0));
+
+        mockMvc.perform(get("/api/books/getAllBooks")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isArray());
+
+        verify(bookService, times(1)).getAllBooks("abc", 5);
+    }
+
     @Test
     void sortBookByPriceDescEndpointTest() throws Exception {
         mockMvc.perform(get("/api/books/sortByPriceDesc"));
@@ -173,6 +399,48 @@ class BookControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void exportBooksEndpointTest() throws Exception {
+        mockMvc.perform(get("/api/books/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.csv\""));
+
+        verify(bookExportService, times(1)).export(eq(BookFileFormat.CSV), any());
+    }
+
+    @Test
+    void importBooksEndpointTest() throws Exception {
+        var report = new ImportReportDTO(1, 1, 0, List.of());
+        when(bookImportService.importBooks(eq(BookFileFormat.CSV), any())).thenReturn(report);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/books/import")
+                        .param("format", "csv")
+                        .contentType("text/csv")
+                        .content("name,author,description,price\nBook1,Author1,Description1,10.0\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
+    @Test
+    void updateBookByIdPassesIfMatchVersionTest() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        Book book = new Book();
+        book.setId(bookId);
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(bookId);
+        bookDTO.setVersion(4L);
+
+        when(bookService.updateBookById(eq(bookId), any(InsertBookDTO.class), eq(3L))).thenReturn(Optional.of(book));
+        when(bookService.mapToDTO(book)).thenReturn(bookDTO);
+
+        mockMvc.perform(put("/api/books/update/{bookId}", bookId)
+                        .param("price", "12.5")
+                        .header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
     @Test
     void deleteBookByIdEndpointTest() throws Exception {
         UUID bookId = UUID.randomUUID();
@@ -183,4 +451,14 @@ class BookControllerTest {
         verify(bookService, times(1)).deleteById(eq(bookId));
     }
 
-}
\ No newline at end of file
+    @Test
+    void deleteBooksByAuthorEndpointTest() throws Exception {
+        when(bookService.deleteByAuthor("Author1")).thenReturn(new DeleteReportDTO(3, 2));
+
+        mockMvc.perform(delete("/api/books/deleteByAuthor").param("author", "Author1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.example.bookstore.controller;
+
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.service.CatalogVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingResponseCacheTest {
+
+    CatalogVersion catalogVersion;
+    ListingResponseCache cache;
+
+    @BeforeEach
+    void init() {
+        catalogVersion = new CatalogVersion();
+        cache = new ListingResponseCache(new ObjectMapper(), catalogVersion, 1 << 20, false);
+    }
+
+    @AfterEach
+    void shutdown() {
+        cache.destroy();
+    }
+
+    @Test
+    void hitIsServedWithoutRebuilding() throws Exception {
+        var builds = new AtomicInteger();
+
+        var first = cache.get("key", () -> List.of(builds.incrementAndGet()));
+        var second = cache.get("key", () -> List.of(builds.incrementAndGet()));
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertEquals("[1]", new String(first.json()));
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertArrayEquals(first.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void staleEntryIsServedWhileOneRebuildRuns() throws Exception {
+        var builds = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        var stale = cache.get("key", () -> List.of(builds.incrementAndGet()));
+        catalogVersion.onBooksChanged(BooksChangedEvent.deleted(UUID.randomUUID()));
+
+        for (int i = 0; i < 5; i++) {
+            assertSame(stale, cache.get("key", () -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(builds.incrementAndGet());
+            }));
+        }
+        release.countDown();
+
+        ListingResponseCache.EncodedResponse fresh = stale;
+        for (int i = 0; i < 250 && fresh == stale; i++) {
+            Thread.sleep(20);
+            fresh = cache.get("key", () -> List.of(builds.incrementAndGet()));
+        }
+        assertEquals(catalogVersion.generation(), fresh.generation());
+        assertEquals(catalogVersion.etag(), fresh.etag());
+        assertEquals(2, builds.get());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.factory.BookFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest {
+
+    BookSearchIndex index;
+    List<Book> books;
+
+    @BeforeEach
+    void init() {
+        index = new BookSearchIndex();
+        books = BookFactory.createBooks();
+        books.forEach(book -> {
+            book.setId(UUID.randomUUID());
+            index.load(book);
+        });
+        index.markReady();
+    }
+
+    private List<UUID> idsOf(String... names) {
+        var result = new ArrayList<UUID>();
+        for (var name : names) {
+            books.stream().filter(book -> book.getName().equals(name)).forEach(book -> result.add(book.getId()));
+        }
+        return result;
+    }
+
+    @Test
+    void searchByNameMatchesSubstringsInNameOrder() {
+        var result = index.search(BookSearchIndex.Field.NAME, "Java", null, null, 10);
+
+        assertEquals(idsOf("Java Advanced", "Java Basic"), result);
+    }
+
+    @Test
+    void namesAreOrderedByCodePointLikeTheCCollation() {
+        var names = List.of("Java apple", "Java Banana", "Java \uD83D\uDCDA", "Java \uFB01");
+        var added = new ArrayList<Book>();
+        for (var name : names) {
+            var book = BookFactory.createBook(name, "Author", null, 10.00);
+            book.setId(UUID.randomUUID());
+            added.add(book);
+        }
+        index.onBooksChanged(BooksChangedEvent.saved(added));
+        books.addAll(added);
+
+        var result = index.search(BookSearchIndex.Field.NAME, "Java ", null, null, 10);
+
+        assertEquals(idsOf("Java Advanced", "Java Banana", "Java Basic", "Java apple", "Java \uFB01", "Java \uD83D\uDCDA"), result);
+    }
+
+    @Test
+    void searchIsCaseSensitiveLikeSqlLike() {
+        assertTrue(index.search(BookSearchIndex.Field.NAME, "java", null, null, 10).isEmpty());
+    }
+
+    @Test
+    void shortQueriesScanAllDocuments() {
+        var result = index.search(BookSearchIndex.Field.AUTHOR, "Ec", null, null, 10);
+
+        assertEquals(books.stream().filter(book -> book.getAuthor().contains("Ec")).count(), result.size());
+    }
+
+    @Test
+    void searchContinuesAfterCursorAndRespectsLimit() {
+        var first = index.search(BookSearchIndex.Field.NAME, "Java", null, null, 1);
+        var java = idsOf("Java Advanced", "Java Basic");
+        assertEquals(java.subList(0, 1), first);
+
+        var next = index.search(BookSearchIndex.Field.NAME, "Java", "Java Advanced", first.get(0), 10);
+        assertEquals(java.subList(1, 2), next);
+    }
+
+    @Test
+    void savedAndDeletedBooksAreAppliedIncrementally() {
+        var renamed = books.get(0);
+        var removed = idsOf("Java Basic").get(0);
+        var added = BookFactory.createBook("Java Concurrency", "Brian Goetz", "Threads", 40.00);
+        added.setId(UUID.randomUUID());
+
+        renamed.setName("Kotlin " + renamed.getName());
+        index.onBooksChanged(BooksChangedEvent.saved(List.of(renamed, added)));
+        index.onBooksChanged(BooksChangedEvent.deleted(removed));
+
+        var result = index.search(BookSearchIndex.Field.NAME, "Java", null, null, 10);
+        assertFalse(result.contains(removed));
+        assertTrue(result.contains(added.getId()));
+        assertEquals(List.of(renamed.getId()), index.search(BookSearchIndex.Field.NAME, "Kotlin", null, null, 10));
+    }
+
+    @Test
+    void bookDeletedDuringStartupLoadIsNotResurrected() {
+        var fresh = new BookSearchIndex();
+        var book = books.get(0);
+        fresh.onBooksChanged(BooksChangedEvent.deleted(book.getId()));
+        fresh.load(book);
+        fresh.markReady();
+
+        assertTrue(fresh.search(BookSearchIndex.Field.NAME, book.getName(), null, null, 10).isEmpty());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.dto.book.AuthorCountDTO;
+import com.example.bookstore.dto.book.PriceBucketDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.factory.BookFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCatalogTest {
+
+    ColumnarCatalog catalog;
+    List<Book> books;
+
+    @BeforeEach
+    void init() {
+        catalog = new ColumnarCatalog(new PriceBuckets(new double[]{20, 40}), 100_000);
+        books = BookFactory.createBooks();
+        books.forEach(book -> {
+            book.setId(UUID.randomUUID());
+            catalog.load(book);
+        });
+        catalog.markReady();
+    }
+
+    private static List<Long> counts(List<PriceBucketDTO> buckets) {
+        return buckets.stream().map(PriceBucketDTO::getCount).toList();
+    }
+
+    private Book book(String name) {
+        return books.stream().filter(book -> book.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void unfilteredScanCountsTheWholeCatalog() {
+        var facets = catalog.facets(CatalogFilter.NONE, 10);
+
+        assertEquals(4, facets.getTotal());
+        assertEquals(10.00, facets.getMinPrice());
+        assertEquals(45.00, facets.getMaxPrice());
+        assertEquals(4, facets.getDistinctAuthors());
+        assertEquals(List.of(1L, 2L, 1L), counts(facets.getPriceBuckets()));
+        assertEquals(4, catalog.snapshot().size());
+    }
+
+    @Test
+    void filtersCombineNameAuthorAndPriceRange() {
+        assertEquals(2, catalog.facets(new CatalogFilter("Java", null, null, null), 10).getTotal());
+        assertEquals(0, catalog.facets(new CatalogFilter("java", null, null, null), 10).getTotal());
+        assertEquals(1, catalog.facets(new CatalogFilter("Java", "Eckel", null, null), 10).getTotal());
+
+        var facets = catalog.facets(new CatalogFilter(null, "Author", 15.0, 40.0), 10);
+        assertEquals(1, facets.getTotal());
+        assertEquals(List.of(new AuthorCountDTO("Author2", 1)), facets.getAuthors());
+        assertEquals(List.of(0L, 1L, 0L), counts(facets.getPriceBuckets()));
+    }
+
+    @Test
+    void updatesAndDeletesArePublishedInANewSnapshot() {
+        var before = catalog.snapshot();
+        var basic = book("Java Basic");
+        var moved = Book.builder().id(basic.getId()).name("Kotlin Basic").author("Bruce Eckel").price(12.00).build();
+
+        catalog.onBooksChanged(BooksChangedEvent.saved(moved));
+        catalog.onBooksChanged(BooksChangedEvent.deleted(book("Book1").getId()));
+
+        var facets = catalog.facets(new CatalogFilter(null, null, null, 20.0), 10);
+        assertEquals(2, facets.getTotal());
+        assertEquals(List.of(new AuthorCountDTO("Author2", 1), new AuthorCountDTO("Bruce Eckel", 1)), facets.getAuthors());
+        assertEquals(List.of(new AuthorCountDTO("Bruce Eckel", 2)),
+                catalog.facets(CatalogFilter.NONE, 1).getAuthors());
+        assertEquals(4, before.size());
+        assertEquals(3, catalog.snapshot().size());
+    }
+
+    @Test
+    void booksWithoutPriceOrAuthorAreCountedButNotBucketed() {
+        var book = Book.builder().id(UUID.randomUUID()).name("Java Anonymous").build();
+        catalog.onBooksChanged(BooksChangedEvent.saved(book));
+
+        var facets = catalog.facets(new CatalogFilter("Java", null, null, null), 10);
+        assertEquals(3, facets.getTotal());
+        assertEquals(2, facets.getDistinctAuthors());
+        assertEquals(List.of(0L, 1L, 1L), counts(facets.getPriceBuckets()));
+        assertEquals(2, catalog.facets(new CatalogFilter("Java", null, 0.0, null), 10).getTotal());
+        assertEquals(0, catalog.facets(new CatalogFilter("Java", "Eckel", 0.0, 40.0), 10).getTotal());
+    }
+
+    @Test
+    void manyDeletesCompactTheColumns() {
+        var added = new ArrayList<UUID>();
+        for (int i = 0; i < 3000; i++) {
+            var book = Book.builder().id(UUID.randomUUID()).name("Volume " + i).author("Author " + i).price(1.0).build();
+            catalog.onBooksChanged(BooksChangedEvent.saved(book));
+            added.add(book.getId());
+        }
+        var grown = catalog.snapshot().footprintBytes();
+        catalog.onBooksChanged(BooksChangedEvent.deleted(added.subList(0, 2990)));
+
+        assertTrue(catalog.snapshot().footprintBytes() < grown);
+        assertEquals(14, catalog.facets(CatalogFilter.NONE, 10).getTotal());
+        assertEquals(10, catalog.facets(new CatalogFilter("Volume", null, null, null), 100).getDistinctAuthors());
+        catalog.onBooksChanged(BooksChangedEvent.deleted(added.get(2999)));
+        assertEquals(9, catalog.facets(new CatalogFilter("Volume", null, null, null), 100).getTotal());
+    }
+
+    @Test
+    void parallelScanCountsLikeTheSequentialOne() {
+        var parallel = new ColumnarCatalog(new PriceBuckets(new double[]{20, 40}), 1);
+        var sequential = new ColumnarCatalog(new PriceBuckets(new double[]{20, 40}), Integer.MAX_VALUE);
+        for (int i = 0; i < 3 * ColumnarCatalog.SCAN_CHUNK; i++) {
+            var book = Book.builder().id(UUID.randomUUID()).name("Book " + i).author("Author " + i % 97).price(i % 60 * 1.0).build();
+            parallel.load(book);
+            sequential.load(book);
+        }
+        parallel.markReady();
+        sequential.markReady();
+
+        var filter = new CatalogFilter("7", null, 10.0, 50.0);
+        assertEquals(sequential.facets(filter, 20), parallel.facets(filter, 20));
+    }
+
+    @Test
+    void changesDuringTheLoadAreReplayed() {
+        var warming = new ColumnarCatalog(new PriceBuckets(new double[]{20}), 100_000);
+        var dune = BookFactory.createBook("Dune", "Frank Herbert", "Sand", 12.00);
+        var emma = BookFactory.createBook("Emma", "Jane Austen", "Manners", 25.00);
+        dune.setId(UUID.randomUUID());
+        emma.setId(UUID.randomUUID());
+
+        warming.onBooksChanged(BooksChangedEvent.deleted(dune.getId()));
+        warming.load(dune);
+        warming.load(emma);
+        assertFalse(warming.isReady());
+        warming.markReady();
+
+        assertTrue(warming.isReady());
+        assertEquals(List.of(new AuthorCountDTO("Jane Austen", 1)), warming.facets(CatalogFilter.NONE, 10).getAuthors());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.dto.book.AuthorCountDTO;
+import com.example.bookstore.dto.book.PriceBucketDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.factory.BookFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest {
+
+    FacetIndex index;
+    List<Book> books;
+
+    @BeforeEach
+    void init() {
+        index = new FacetIndex(new PriceBuckets(new double[]{20, 40}));
+        books = BookFactory.createBooks();
+        books.forEach(book -> {
+            book.setId(UUID.randomUUID());
+            index.load(book);
+        });
+        index.markReady();
+    }
+
+    private static List<Long> counts(List<PriceBucketDTO> buckets) {
+        return buckets.stream().map(PriceBucketDTO::getCount).toList();
+    }
+
+    @Test
+    void catalogFacetsCountAuthorsAndPriceBuckets() {
+        var facets = index.facets(10);
+
+        assertEquals(4, facets.getTotal());
+        assertEquals(10.00, facets.getMinPrice());
+        assertEquals(45.00, facets.getMaxPrice());
+        assertEquals(4, facets.getDistinctAuthors());
+        assertEquals(List.of(new PriceBucketDTO(null, 20.0, 1), new PriceBucketDTO(20.0, 40.0, 2),
+                new PriceBucketDTO(40.0, null, 1)), facets.getPriceBuckets());
+    }
+
+    @Test
+    void authorsAreRankedByBooksAndLimited() {
+        var book = BookFactory.createBook("Thinking in Java", "Bruce Eckel", "Objects", 30.00);
+        book.setId(UUID.randomUUID());
+        index.onBooksChanged(BooksChangedEvent.saved(book));
+
+        var facets = index.facets(2);
+
+        assertEquals(List.of(new AuthorCountDTO("Bruce Eckel", 2), new AuthorCountDTO("Author1", 1)), facets.getAuthors());
+        assertEquals(4, facets.getDistinctAuthors());
+    }
+
+    @Test
+    void updatesAndDeletesMoveTheCounters() {
+        var cheapest = books.get(0);
+        var mostExpensive = books.get(3);
+        var repriced = Book.builder().id(cheapest.getId()).name(cheapest.getName()).author("Author2").price(25.00).build();
+
+        index.onBooksChanged(BooksChangedEvent.saved(repriced));
+        index.onBooksChanged(BooksChangedEvent.deleted(mostExpensive.getId()));
+
+        var facets = index.facets(10);
+        assertEquals(3, facets.getTotal());
+        assertEquals(20.00, facets.getMinPrice());
+        assertEquals(35.00, facets.getMaxPrice());
+        assertEquals(List.of(new AuthorCountDTO("Author2", 2), new AuthorCountDTO("Herbert Schildt", 1)), facets.getAuthors());
+        assertEquals(List.of(0L, 3L, 0L), counts(facets.getPriceBuckets()));
+    }
+
+    @Test
+    void emptyCatalogHasNoPriceRange() {
+        var empty = new FacetIndex(new PriceBuckets(new double[]{20}));
+        empty.markReady();
+
+        var facets = empty.facets(10);
+
+        assertEquals(0, facets.getTotal());
+        assertNull(facets.getMinPrice());
+        assertNull(facets.getMaxPrice());
+        assertEquals(List.of(0L, 0L), counts(facets.getPriceBuckets()));
+    }
+
+    @Test
+    void bucketEdgesMustIncrease() {
+        assertThrows(IllegalArgumentException.class, () -> new PriceBuckets(new double[]{20, 10}));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.factory.BookFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceIndexTest {
+
+    PriceIndex index;
+    List<Book> books;
+
+    @BeforeEach
+    void init() {
+        index = new PriceIndex();
+        books = new ArrayList<>();
+        var random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            // Few distinct prices, so the id decides the order of most neighbours
+            var book = BookFactory.createBook("Book" + i, "Author" + i, "Description" + i, random.nextInt(20));
+            book.setId(new UUID(random.nextLong(), random.nextLong()));
+            books.add(book);
+            index.load(book);
+        }
+        index.markReady();
+    }
+
+    private List<UUID> expectedAscending() {
+        return books.stream()
+                .filter(book -> book.getPrice() != null)
+                .sorted(Comparator.comparing(Book::getPrice).thenComparing(Book::getId, BookOrder::compareIds))
+                .map(Book::getId)
+                .toList();
+    }
+
+    @Test
+    void ascendingPagesFollowPriceThenUnsignedId() {
+        var expected = expectedAscending();
+        var collected = new ArrayList<UUID>();
+        var page = index.ascending(0, null, 7);
+        while (!page.isEmpty()) {
+            collected.addAll(page);
+            var last = books.stream().filter(book -> book.getId().equals(page.get(page.size() - 1))).findFirst().get();
+            page.clear();
+            page.addAll(index.ascending(last.getPrice(), last.getId(), 7));
+        }
+
+        assertEquals(expected, collected);
+    }
+
+    @Test
+    void descendingIsTheReverseOrder() {
+        var expected = new ArrayList<>(expectedAscending());
+        Collections.reverse(expected);
+
+        assertEquals(expected.subList(0, 10), index.descending(0, null, 10));
+        var tenth = books.stream().filter(book -> book.getId().equals(expected.get(9))).findFirst().get();
+        assertEquals(expected.subList(10, 15), index.descending(tenth.getPrice(), tenth.getId(), 5));
+    }
+
+    @Test
+    void betweenReturnsInclusiveRangeWithOffset() {
+        var inRange = books.stream().filter(book -> book.getPrice() >= 5 && book.getPrice() <= 8).count();
+        var expected = expectedAscending().stream()
+                .filter(id -> books.stream().anyMatch(book -> book.getId().equals(id) && book.getPrice() >= 5 && book.getPrice() <= 8))
+                .toList();
+
+        var range = index.between(5, 8, 3, 4);
+
+        assertEquals(inRange, range.total());
+        assertEquals(expected.subList(3, 7), range.ids());
+        assertTrue(index.between(100, 200, 0, 10).ids().isEmpty());
+        assertTrue(index.between(5, 8, 1000, 10).ids().isEmpty());
+    }
+
+    @Test
+    void changesAreMergedIncrementally() {
+        var repriced = books.get(0);
+        var deleted = books.get(1);
+        var added = BookFactory.createBook("New", "Author", "Description", 1000.00);
+        added.setId(UUID.randomUUID());
+        var unpriced = books.get(2);
+
+        repriced.setPrice(-1.0);
+        unpriced.setPrice(null);
+        index.onBooksChanged(BooksChangedEvent.saved(List.of(repriced, added, unpriced)));
+        index.onBooksChanged(BooksChangedEvent.deleted(deleted.getId()));
+        books.remove(deleted);
+        books.add(added);
+
+        assertEquals(199, index.size());
+        assertEquals(List.of(repriced.getId()), index.ascending(0, null, 1));
+        assertEquals(List.of(added.getId()), index.descending(0, null, 1));
+        assertEquals(expectedAscending(), index.ascending(0, null, 1000));
+    }
+
+    @Test
+    void changesDuringStartupLoadAreReplayed() {
+        var fresh = new PriceIndex();
+        var book = books.get(0);
+        var removed = books.get(1);
+        fresh.onBooksChanged(BooksChangedEvent.deleted(removed.getId()));
+        book.setPrice(500.0);
+        fresh.onBooksChanged(BooksChangedEvent.saved(book));
+        fresh.load(removed);
+        var stale = BookFactory.createBook(book.getName(), book.getAuthor(), book.getDescription(), 1.0);
+        stale.setId(book.getId());
+        fresh.load(stale);
+        fresh.markReady();
+
+        assertTrue(fresh.isReady());
+        assertEquals(1, fresh.size());
+        assertEquals(List.of(book.getId()), fresh.ascending(0, null, 10));
+    }
+}
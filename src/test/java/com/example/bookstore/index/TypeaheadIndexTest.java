@@ -0,0 +1,173 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.factory.BookFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeaheadIndexTest {
+
+    TypeaheadIndex index;
+    List<Book> books;
+
+    @BeforeEach
+    void init() {
+        index = new TypeaheadIndex();
+        books = new ArrayList<>(BookFactory.createBooks());
+        books.add(BookFactory.createBook("Java Concurrency in Practice", "Brian Goetz", "Threads", 40.00));
+        books.add(BookFactory.createBook("Thinking in Java", "Bruce Eckel", "Objects", 30.00));
+        books.forEach(book -> {
+            book.setId(UUID.randomUUID());
+            index.load(book);
+        });
+        index.markReady();
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+
+    private Book book(String name) {
+        return books.stream().filter(book -> book.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void suggestMatchesPrefixesOfNamesAndAuthorsIgnoringCase() {
+        var suggestions = index.suggest("BR", 10);
+
+        assertEquals(List.of("Bruce Eckel", "Brian Goetz"), texts(suggestions));
+        assertEquals(BookSearchIndex.Field.AUTHOR, suggestions.get(0).field());
+        assertEquals(2, suggestions.get(0).score());
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+        assertTrue(index.suggest("Eckel", 10).isEmpty());
+    }
+
+    @Test
+    void suggestRanksByBooksAndViewsAndRespectsTheLimit() {
+        assertEquals(3, index.suggest("java", 3).size());
+
+        index.recordView(book("Java Concurrency in Practice").getId());
+        index.recordView(book("Java Concurrency in Practice").getId());
+
+        var suggestions = index.suggest("java", 2);
+        assertEquals("Java Concurrency in Practice", suggestions.get(0).text());
+        assertEquals(3, suggestions.get(0).score());
+        assertEquals(2, suggestions.size());
+    }
+
+    @Test
+    void viewsRecordedConcurrentlyAreAllCounted() throws Exception {
+        var practice = book("Java Concurrency in Practice").getId();
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var tasks = new ArrayList<Future<?>>();
+            for (int t = 0; t < 4; t++) {
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        index.recordView(practice);
+                        if (i % 1000 == 0) index.suggest("java", 3);
+                    }
+                }));
+            }
+            for (var task : tasks) task.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(40_001, index.suggest("java c", 10).get(0).score());
+    }
+
+    @Test
+    void viewsOfDeletedBooksAreDropped() {
+        var basic = book("Java Basic");
+        index.recordView(basic.getId());
+        index.onBooksChanged(BooksChangedEvent.deleted(basic.getId()));
+        index.recordView(basic.getId());
+
+        var readded = Book.builder().id(basic.getId()).name(basic.getName()).author(basic.getAuthor()).price(35.00).build();
+        index.onBooksChanged(BooksChangedEvent.saved(readded));
+
+        assertEquals(1, index.suggest("java b", 10).get(0).score());
+    }
+
+    @Test
+    void prefixesEndingInsideAnEdgeAreMatched() {
+        assertEquals(List.of("Java Concurrency in Practice"), texts(index.suggest("java c", 10)));
+        assertEquals(List.of("Java Concurrency in Practice"), texts(index.suggest("Java Concurrency in Practice", 10)));
+        assertTrue(index.suggest("Java Concurrency in Practice!", 10).isEmpty());
+    }
+
+    @Test
+    void updatesAndDeletesAreFollowed() {
+        var basic = book("Java Basic");
+        var renamed = Book.builder().id(basic.getId()).name("Kotlin Basic").author(basic.getAuthor()).price(35.00).build();
+
+        index.onBooksChanged(BooksChangedEvent.saved(renamed));
+        index.onBooksChanged(BooksChangedEvent.deleted(book("Thinking in Java").getId()));
+
+        assertEquals(List.of("Kotlin Basic"), texts(index.suggest("k", 10)));
+        assertFalse(texts(index.suggest("java", 10)).contains("Java Basic"));
+        assertEquals(List.of("Bruce Eckel"), texts(index.suggest("Bruce", 10)));
+        assertEquals(1, index.suggest("Bruce", 10).get(0).score());
+        assertTrue(index.suggest("thinking", 10).isEmpty());
+    }
+
+    @Test
+    void viewsSurviveAnUpdateThatKeepsNameAndAuthor() {
+        var practice = book("Java Concurrency in Practice");
+        index.recordView(practice.getId());
+        index.recordView(practice.getId());
+        var repriced = Book.builder().id(practice.getId()).name(practice.getName()).author(practice.getAuthor())
+                .price(45.00).build();
+
+        index.onBooksChanged(BooksChangedEvent.saved(repriced));
+
+        assertEquals(3, index.suggest("java c", 10).get(0).score());
+        assertEquals(3, index.suggest("brian", 10).get(0).score());
+
+        var renamed = Book.builder().id(practice.getId()).name("Concurrency in Practice").author(practice.getAuthor())
+                .price(45.00).build();
+        index.onBooksChanged(BooksChangedEvent.saved(renamed));
+
+        assertEquals(1, index.suggest("concurrency", 10).get(0).score());
+        assertEquals(3, index.suggest("brian", 10).get(0).score());
+    }
+
+    @Test
+    void manyDeletesCompactTheTrieWithoutLosingLiveTerms() {
+        var added = new ArrayList<UUID>();
+        for (int i = 0; i < 3000; i++) {
+            var book = Book.builder().id(UUID.randomUUID()).name("Volume " + i).author("Author " + i).price(1.0).build();
+            index.onBooksChanged(BooksChangedEvent.saved(book));
+            added.add(book.getId());
+        }
+        index.onBooksChanged(BooksChangedEvent.deleted(added.subList(0, 2990)));
+
+        var expected = new ArrayList<String>();
+        for (int i = 2990; i < 3000; i++) expected.add("Volume " + i);
+        assertEquals(expected, texts(index.suggest("volume", 50)).stream().sorted().toList());
+        assertEquals(List.of("Java Basic"), texts(index.suggest("java b", 10)));
+    }
+
+    @Test
+    void booksDeletedDuringTheLoadAreNotLoaded() {
+        var warming = new TypeaheadIndex();
+        var book = BookFactory.createBook("Dune", "Frank Herbert", "Sand", 12.00);
+        book.setId(UUID.randomUUID());
+
+        warming.onBooksChanged(BooksChangedEvent.deleted(book.getId()));
+        warming.load(book);
+        warming.markReady();
+
+        assertTrue(warming.suggest("du", 10).isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bookstore.mapper;
+
+import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.Role;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.factory.BookFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoMapperImplTest {
+
+    private final DtoMapper dtoMapper = new DtoMapperImpl();
+
+    @Test
+    void bookToDTOCopiesEveryField() {
+        Book book = BookFactory.createBook("Java Basic", "Herbert Schildt", "Java for beginners", 35.00);
+        book.setId(UUID.randomUUID());
+        book.setVersion(3L);
+
+        BookDTO bookDTO = dtoMapper.toDTO(book);
+
+        assertEquals(book.getId(), bookDTO.getId());
+        assertEquals("Java Basic", bookDTO.getName());
+        assertEquals("Herbert Schildt", bookDTO.getAuthor());
+        assertEquals("Java for beginners", bookDTO.getDescription());
+        assertEquals(35.00, bookDTO.getPrice());
+        assertEquals(3L, bookDTO.getVersion());
+    }
+
+    @Test
+    void bookDTOToEntityRoundTrips() {
+        Book book = BookFactory.createBook("Java Advanced", "Bruce Eckel", "Java for advanced programmers", 45.00);
+        book.setId(UUID.randomUUID());
+
+        assertEquals(book, dtoMapper.toEntity(dtoMapper.toDTO(book)));
+    }
+
+    @Test
+    void insertBookDTOToEntityLeavesIdEmpty() {
+        InsertBookDTO insertBookDTO = new InsertBookDTO();
+        insertBookDTO.setName("Sample Book");
+        insertBookDTO.setAuthor("Sample Author");
+        insertBookDTO.setDescription("Sample Description");
+        insertBookDTO.setPrice(10.50);
+
+        Book book = dtoMapper.toEntity(insertBookDTO);
+
+        assertNull(book.getId());
+        assertEquals("Sample Book", book.getName());
+        assertEquals("Sample Author", book.getAuthor());
+        assertEquals("Sample Description", book.getDescription());
+        assertEquals(10.50, book.getPrice());
+    }
+
+    @Test
+    void userToDTOCopiesEveryField() {
+        User user = User.builder().id(UUID.randomUUID()).username("user").password("hash").role(Role.USER).build();
+
+        var userDTO = dtoMapper.toDTO(user);
+
+        assertEquals(user.getId(), userDTO.getId());
+        assertEquals("user", userDTO.getUsername());
+        assertEquals("hash", userDTO.getPassword());
+        assertEquals(Role.USER, userDTO.getRole());
+    }
+
+    @Test
+    void nullSourceMapsToNull() {
+        assertNull(dtoMapper.toDTO((Book) null));
+        assertNull(dtoMapper.toDTO((User) null));
+        assertNull(dtoMapper.toEntity((InsertBookDTO) null));
+    }
+}
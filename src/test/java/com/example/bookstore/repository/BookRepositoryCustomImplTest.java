@@ -0,0 +1,138 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.factory.BookFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BookRepositoryCustomImplTest {
+
+    @Autowired
+    BookRepository bookRepository;
+
+    private Book save(String name, double price) {
+        return bookRepository.saveAndFlush(BookFactory.createBook(name, "Author", "Description", price));
+    }
+
+    @Test
+    void updatePartiallyWritesOnlyTheGivenFieldsAndBumpsTheVersion() {
+        var book = save("Old name", 10.00);
+        long version = book.getVersion();
+
+        var updated = bookRepository.updatePartially(List.of(new BookPatch(book.getId(), version, null, null, null, 12.50)));
+
+        assertArrayEquals(new int[]{1}, updated);
+        var reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        assertEquals("Old name", reloaded.getName());
+        assertEquals(12.50, reloaded.getPrice());
+        assertEquals(version + 1, reloaded.getVersion());
+    }
+
+    @Test
+    void updatePartiallyReportsStaleVersionsAndMissingRows() {
+        var book1 = save("Book1", 10.00);
+        var book2 = save("Book2", 20.00);
+        var patches = List.of(
+                new BookPatch(book1.getId(), book1.getVersion() + 1, "Lost update", null, null, null),
+                new BookPatch(book2.getId(), book2.getVersion(), "Book2 renamed", "Other author", null, null),
+                new BookPatch(UUID.randomUUID(), null, "Nobody", null, null, null),
+                new BookPatch(book1.getId(), null, null, null, "New description", null));
+
+        var updated = bookRepository.updatePartially(patches);
+
+        assertArrayEquals(new int[]{0, 1, 0, 1}, updated);
+        var reloaded1 = bookRepository.findById(book1.getId()).orElseThrow();
+        assertEquals("Book1", reloaded1.getName());
+        assertEquals(book1.getVersion() + 1, reloaded1.getVersion());
+        assertEquals("Other author", bookRepository.findById(book2.getId()).orElseThrow().getAuthor());
+    }
+
+    @Test
+    void deleteAllByIdInDeletesOnlyTheGivenRows() {
+        var book1 = save("Book1", 10.00);
+        var book2 = save("Book2", 20.00);
+
+        int deleted = bookRepository.deleteAllByIdIn(List.of(book1.getId(), UUID.randomUUID()));
+
+        assertEquals(1, deleted);
+        assertTrue(bookRepository.findById(book1.getId()).isEmpty());
+        assertTrue(bookRepository.findById(book2.getId()).isPresent());
+        assertEquals(List.of(book2.getId()), bookRepository.findIdsByAuthor("Author"));
+    }
+
+    @Test
+    void findPageByPriceBetweenSelectsSummaries() {
+        var book1 = save("Book1", 10.00);
+        var book2 = save("Book2", 20.00);
+        save("Book3", 30.00);
+
+        var page = bookRepository.findPageByPriceBetween(5.0, 25.0, 1, 5);
+
+        assertEquals(List.of(new BookSummary(book2.getId(), "Book2", "Author", 20.00)), page);
+        assertEquals(List.of(BookSummary.of(book1)), bookRepository.findSummariesByIdIn(List.of(book1.getId())));
+    }
+
+    @Test
+    void countNamesStartingWithGroupsAndEscapesThePrefix() {
+        save("Java Basic", 10.00);
+        save("Java Basic", 12.00);
+        save("javelin", 15.00);
+        save("100% Java", 20.00);
+        save("100 Tips", 25.00);
+
+        var rows = bookRepository.countNamesStartingWith("jav", Pageable.ofSize(10));
+
+        assertEquals(2, rows.size());
+        assertEquals("Java Basic", rows.get(0)[0]);
+        assertEquals(2L, rows.get(0)[1]);
+        assertEquals(List.of("100% Java"),
+                bookRepository.countNamesStartingWith("100\\%", Pageable.ofSize(10)).stream().map(row -> row[0]).toList());
+        assertEquals(1, bookRepository.countAuthorsStartingWith("auth", Pageable.ofSize(10)).size());
+    }
+
+    @Test
+    void findPageByNameContainingMatchesEscapedWildcardsLiterally() {
+        save("100% Java", 10.00);
+        save("1000 Java", 20.00);
+        save("Java_8", 30.00);
+        save("Java 8", 40.00);
+
+        assertEquals(List.of("100% Java"), names(bookRepository.findPageByNameContaining("%0\\%%", Pageable.ofSize(10))));
+        assertEquals(List.of("Java_8"), names(bookRepository.findPageByNameContaining("%a\\_8%", Pageable.ofSize(10))));
+        assertEquals(List.of("100% Java", "1000 Java"), names(bookRepository.findPageByNameContainingAfter("%00%", "", UUID.randomUUID(), Pageable.ofSize(10))));
+    }
+
+    private static List<String> names(List<BookSummary> summaries) {
+        return summaries.stream().map(BookSummary::name).toList();
+    }
+
+    @Test
+    void countByAuthorAndPriceBucketGroupsInOneQuery() {
+        save("Java Basic", 10.00);
+        save("Java Advanced", 45.00);
+        save("Java Puzzlers", 50.00);
+        save("Dune", 15.00);
+
+        var rows = bookRepository.countByAuthorAndPriceBucket(new double[]{20.0, 50.0}, "%Java%", null, null, null);
+
+        var byBucket = new TreeMap<Integer, Object[]>();
+        rows.forEach(row -> byBucket.put(((Number) row[1]).intValue(), row));
+        assertEquals(List.of(0, 1, 2), List.copyOf(byBucket.keySet()));
+        assertEquals(1L, byBucket.get(0)[2]);
+        assertEquals(45.00, byBucket.get(1)[3]);
+        assertEquals(50.00, byBucket.get(2)[4]);
+        assertEquals(4L, bookRepository.countByAuthorAndPriceBucket(new double[]{20.0, 50.0}, null, null, null, null).stream()
+                .mapToLong(row -> (Long) row[2]).sum());
+        assertEquals(2L, bookRepository.countByAuthorAndPriceBucket(new double[]{20.0, 50.0}, "%Java%", null, 40.0, 50.0).stream()
+                .mapToLong(row -> (Long) row[2]).sum());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.factory.BookFactory;
+import com.example.bookstore.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookCacheTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    BookCache bookCache;
+    Book book;
+
+    @BeforeEach
+    void init() {
+        bookCache = new BookCache(bookRepository, 100, 60, false);
+        book = BookFactory.createBook("Clean Code", "Robert C. Martin", "Craftsmanship", 50.00);
+        book.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void getByIdReadsThrough() {
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+
+        assertEquals(Optional.of(book), bookCache.getById(book.getId()));
+        assertEquals(Optional.of(book), bookCache.getById(book.getId()));
+
+        verify(bookRepository, times(1)).findById(book.getId());
+        var registry = new SimpleMeterRegistry();
+        bookCache.bindTo(registry);
+        assertEquals(1, registry.get("cache.gets").tags("cache", "books.byId", "result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tags("cache", "books.byId", "result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void missingBooksAreNotCached() {
+        var bookId = UUID.randomUUID();
+        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+
+        assertTrue(bookCache.getById(bookId).isEmpty());
+        assertTrue(bookCache.getById(bookId).isEmpty());
+
+        verify(bookRepository, times(2)).findById(bookId);
+    }
+
+    @Test
+    void getByNameResolvesThroughTheIdCache() {
+        when(bookRepository.findBookByName("Clean Code")).thenReturn(Optional.of(book));
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+
+        assertEquals(Optional.of(book), bookCache.getByName("Clean Code"));
+        assertEquals(Optional.of(book), bookCache.getByName("Clean Code"));
+        assertEquals(Optional.of(book), bookCache.getByName("Clean Code"));
+
+        verify(bookRepository, times(1)).findBookByName("Clean Code");
+        verify(bookRepository, times(1)).findById(book.getId());
+    }
+
+    @Test
+    void renamedBookNoLongerAnswersItsOldName() {
+        var renamed = BookFactory.createBook("Clean Architecture", "Robert C. Martin", "Craftsmanship", 50.00);
+        renamed.setId(book.getId());
+        when(bookRepository.findBookByName("Clean Code")).thenReturn(Optional.of(book)).thenReturn(Optional.empty());
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(renamed));
+
+        bookCache.getByName("Clean Code");
+        bookCache.onBooksChanged(BooksChangedEvent.saved(renamed));
+
+        assertTrue(bookCache.getByName("Clean Code").isEmpty());
+        verify(bookRepository, times(2)).findBookByName("Clean Code");
+    }
+
+    @Test
+    void deletedBooksAreInvalidated() {
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book)).thenReturn(Optional.empty());
+
+        bookCache.getById(book.getId());
+        bookCache.onBooksChanged(BooksChangedEvent.deleted(book.getId()));
+
+        assertTrue(bookCache.getById(book.getId()).isEmpty());
+    }
+
+    @Test
+    void loadInProgressCannotOverwriteANewerWrite() throws Exception {
+        assertLoadInProgressCannotOverwriteANewerWrite(bookCache);
+    }
+
+    @Test
+    void loadOnVirtualThreadCannotOverwriteANewerWrite() throws Exception {
+        assertLoadInProgressCannotOverwriteANewerWrite(new BookCache(bookRepository, 100, 60, true));
+    }
+
+    private void assertLoadInProgressCannotOverwriteANewerWrite(BookCache bookCache) throws Exception {
+        var updated = BookFactory.createBook("Clean Code", "Robert C. Martin", "2nd edition", 55.00);
+        updated.setId(book.getId());
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(bookRepository.findById(book.getId()))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(book);
+                })
+                .thenReturn(Optional.of(updated));
+
+        var reader = new Thread(() -> bookCache.getById(book.getId()));
+        reader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        var writer = new Thread(() -> bookCache.onBooksChanged(BooksChangedEvent.saved(updated)));
+        writer.start();
+        release.countDown();
+        reader.join(5000);
+        writer.join(5000);
+
+        assertEquals(Optional.of(updated), bookCache.getById(book.getId()));
+    }
+
+    @Test
+    void getAllByIdReadsOnlyUncachedIdsInChunks() {
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        bookCache.getById(book.getId());
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < BookCache.BULK_LOAD_CHUNK_SIZE + 1; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        var other = BookFactory.createBook("Refactoring", "Martin Fowler", "Improving code", 40.00);
+        other.setId(ids.get(0));
+        when(bookRepository.findAllByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> requested = invocation.getArgument(0);
+            return requested.contains(other.getId()) ? List.of(other) : List.of();
+        });
+        ids.add(book.getId());
+
+        var found = bookCache.getAllById(ids);
+
+        assertEquals(Map.of(other.getId(), other, book.getId(), book), found);
+        verify(bookRepository, times(2)).findAllByIdIn(anyCollection());
+        assertEquals(other, bookCache.getAllById(List.of(other.getId())).get(other.getId()));
+        verify(bookRepository, times(2)).findAllByIdIn(anyCollection());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.BookDescription;
+import com.example.bookstore.factory.BookFactory;
+import com.example.bookstore.repository.BookDescriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookDescriptionStoreTest {
+
+    @Mock
+    BookDescriptionRepository descriptionRepository;
+
+    BookDescriptionStore descriptionStore;
+
+    @BeforeEach
+    void init() {
+        descriptionStore = new BookDescriptionStore(descriptionRepository, 1024);
+    }
+
+    @Test
+    void longDescriptionsAreStoredGzipped() {
+        var text = "A story of books, told at length — ".repeat(200);
+
+        var description = descriptionStore.encode(UUID.randomUUID(), text);
+
+        assertEquals(BookDescription.GZIP, description.getEncoding());
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, description.getOriginalSize());
+        assertTrue(description.getContent().length < description.getOriginalSize() / 4);
+        assertEquals(text, BookDescriptionStore.decode(description));
+    }
+
+    @Test
+    void shortDescriptionsAreStoredAsIs() {
+        var description = descriptionStore.encode(UUID.randomUUID(), "Short and sweet");
+
+        assertEquals(BookDescription.PLAIN, description.getEncoding());
+        assertArrayEquals("Short and sweet".getBytes(StandardCharsets.UTF_8), description.getContent());
+        assertEquals("Short and sweet", BookDescriptionStore.decode(description));
+    }
+
+    @Test
+    void compressionStartsAtTheThreshold() {
+        var below = "a".repeat(1023);
+        var at = "a".repeat(1024);
+
+        assertEquals(BookDescription.PLAIN, descriptionStore.encode(UUID.randomUUID(), below).getEncoding());
+        assertEquals(BookDescription.GZIP, descriptionStore.encode(UUID.randomUUID(), at).getEncoding());
+    }
+
+    @Test
+    void saveWithoutTextKeepsTheStoredDescription() {
+        descriptionStore.save(UUID.randomUUID(), null);
+
+        verifyNoInteractions(descriptionRepository);
+    }
+
+    @Test
+    void saveAllSkipsBooksWithoutDescription() {
+        Book book1 = BookFactory.createBook("Book1", "Author1", "Description1", 10.00);
+        Book book2 = BookFactory.createBook("Book2", "Author2", null, 20.00);
+        book1.setId(UUID.randomUUID());
+        book2.setId(UUID.randomUUID());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookDescription>> saved = ArgumentCaptor.forClass(List.class);
+
+        descriptionStore.saveAll(List.of(book1, book2));
+
+        verify(descriptionRepository).saveAll(saved.capture());
+        assertEquals(List.of(book1.getId()), saved.getValue().stream().map(BookDescription::getBookId).toList());
+        assertTrue(saved.getValue().get(0).isNew());
+    }
+
+    @Test
+    void onlyDescriptionsOfNewBooksAreMarkedNew() {
+        ArgumentCaptor<BookDescription> saved = ArgumentCaptor.forClass(BookDescription.class);
+
+        descriptionStore.insert(UUID.randomUUID(), "Fresh");
+        descriptionStore.save(UUID.randomUUID(), "Replaced");
+
+        verify(descriptionRepository, times(2)).save(saved.capture());
+        assertTrue(saved.getAllValues().get(0).isNew());
+        assertFalse(saved.getAllValues().get(1).isNew());
+    }
+
+    @Test
+    void textsAreReadInChunks() {
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < BookDescriptionStore.CHUNK_SIZE + 1; i++) ids.add(UUID.randomUUID());
+        var last = ids.get(ids.size() - 1);
+        when(descriptionRepository.findAllByBookIdIn(anyList())).thenReturn(List.of());
+        when(descriptionRepository.findAllByBookIdIn(List.of(last))).thenReturn(List.of(descriptionStore.encode(last, "Last")));
+
+        Map<UUID, String> texts = descriptionStore.texts(ids);
+
+        assertEquals(Map.of(last, "Last"), texts);
+        verify(descriptionRepository, times(2)).findAllByBookIdIn(anyList());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.entity.BookDescription;
+import com.example.bookstore.factory.BookFactory;
+import com.example.bookstore.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookExportServiceTest {
+
+    @Mock
+    BookRepository bookRepository;
+    @Mock
+    EntityManager entityManager;
+
+    BookExportService bookExportService;
+
+    @BeforeEach
+    void init() {
+        bookExportService = new BookExportService(bookRepository, entityManager, new ObjectMapper());
+    }
+
+    // Rows as the repository streams them: each book with its stored description
+    private static Stream<Object[]> rows(List<Book> books) {
+        var store = new BookDescriptionStore(null, 16);
+        return books.stream().map(book -> new Object[]{book, store.encode(book.getId(), book.getDescription())});
+    }
+
+    private List<Book> books() {
+        Book book1 = BookFactory.createBook("Book1", "Author1", "Description1", 10.00);
+        Book book2 = BookFactory.createBook("Clean Code", "Robert C. Martin", "A \"Handbook\", of craftsmanship", 50.00);
+        book1.setId(UUID.randomUUID());
+        book2.setId(UUID.randomUUID());
+        return List.of(book1, book2);
+    }
+
+    @Test
+    void exportNdjsonWritesOneObjectPerLine() throws Exception {
+        var books = books();
+        when(bookRepository.streamAllWithDescriptions()).thenReturn(rows(books));
+        var out = new ByteArrayOutputStream();
+
+        bookExportService.export(BookFileFormat.NDJSON, out);
+
+        var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        var first = new ObjectMapper().readTree(lines[0]);
+        assertEquals(books.get(0).getId().toString(), first.get("id").asText());
+        assertEquals("Book1", first.get("name").asText());
+        assertEquals(10.00, first.get("price").asDouble());
+        assertEquals("Description1", first.get("description").asText());
+        verify(entityManager, times(2)).detach(any(Book.class));
+        verify(entityManager, times(2)).detach(any(BookDescription.class));
+    }
+
+    @Test
+    void exportCsvQuotesFieldsWithSeparators() throws Exception {
+        var books = books();
+        when(bookRepository.streamAllWithDescriptions()).thenReturn(rows(books));
+        var out = new ByteArrayOutputStream();
+
+        bookExportService.export(BookFileFormat.CSV, out);
+
+        var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,name,author,description,price", lines[0]);
+        assertEquals(books.get(1).getId() + ",Clean Code,Robert C. Martin,\"A \"\"Handbook\"\", of craftsmanship\",50.0", lines[2]);
+    }
+
+    @Test
+    void exportClosesTheStream() throws Exception {
+        var closed = new boolean[1];
+        when(bookRepository.streamAllWithDescriptions()).thenReturn(Stream.<Object[]>empty().onClose(() -> closed[0] = true));
+
+        bookExportService.export(BookFileFormat.NDJSON, new ByteArrayOutputStream());
+
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BookFileFormat.of("xml"));
+    }
+}
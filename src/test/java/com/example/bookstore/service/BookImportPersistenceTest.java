@@ -0,0 +1,57 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.mapper.DtoMapperImpl;
+import com.example.bookstore.repository.BookDescriptionRepository;
+import com.example.bookstore.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookImportPersistenceTest {
+
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    BookDescriptionRepository descriptionRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void importedRowsAreWrittenWithBatchedInsertsOnly() throws Exception {
+        var importService = new BookImportService(bookRepository, new BookDescriptionStore(descriptionRepository, 1024),
+                entityManager, new DtoMapperImpl(), new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionManager, event -> { }, 10);
+        var feed = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            feed.append("{\"name\":\"Book").append(i).append("\",\"author\":\"Author\",\"description\":\"Description")
+                    .append(i).append("\",\"price\":10.0}\n");
+        }
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var report = importService.importBooks(BookFileFormat.NDJSON,
+                new ByteArrayInputStream(feed.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(20, report.getImported());
+        assertEquals(40, statistics.getEntityInsertCount());
+        // One book and one description INSERT per batch of 10, no SELECT per row
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(20, descriptionRepository.count());
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.mapper.DtoMapperImpl;
+import com.example.bookstore.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    BookRepository bookRepository;
+    @Mock
+    BookDescriptionStore descriptionStore;
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Captor
+    ArgumentCaptor<List<Book>> booksCaptor;
+
+    BookImportService bookImportService;
+
+    @BeforeEach
+    void init() {
+        bookImportService = new BookImportService(bookRepository, descriptionStore, entityManager, new DtoMapperImpl(), new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, eventPublisher, 2);
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importNdjsonWritesInBatches() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(((List<?>) invocation.getArgument(0)).size());
+            return invocation.getArgument(0);
+        });
+        var content = """
+                {"name":"Book1","author":"Author1","description":"Description1","price":10.0}
+                {"name":"Book2","author":"Author2","description":"Description2","price":20.0}
+                {"name":"Book3","author":"Author3","description":"Description3","price":30.0}
+                """;
+
+        var report = bookImportService.importBooks(BookFileFormat.NDJSON, body(content));
+
+        assertEquals(3, report.getTotal());
+        assertEquals(3, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertEquals(2, report.getBatches().size());
+        assertEquals(List.of(2, 1), batchSizes);
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void importNdjsonReportsInvalidRows() throws Exception {
+        var content = """
+                {"name":"Book1","author":"Author1","description":"Description1","price":10.0}
+                {"name":"","author":"Author2","description":"Description2","price":0.5}
+                not json
+                """;
+
+        var report = bookImportService.importBooks(BookFileFormat.NDJSON, body(content));
+
+        assertEquals(3, report.getTotal());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getRejected());
+        var errors = report.getBatches().get(0).getErrors();
+        assertEquals("Line 2: Book name can't be empty, Price can't be lower than 1", errors.get(0));
+        assertEquals("Line 3: JSON parse error", errors.get(1));
+    }
+
+    @Test
+    void importCsvHandlesQuotedFields() throws Exception {
+        var content = "id,name,author,description,price\n" +
+                ",Clean Code,Robert C. Martin,\"A \"\"Handbook\"\",\nof craftsmanship\",50.0\n";
+
+        var report = bookImportService.importBooks(BookFileFormat.CSV, body(content));
+
+        verify(bookRepository).saveAll(booksCaptor.capture());
+        Book book = booksCaptor.getValue().get(0);
+        assertEquals(1, report.getImported());
+        assertEquals("Clean Code", book.getName());
+        assertEquals("A \"Handbook\",\nof craftsmanship", book.getDescription());
+        assertEquals(50.0, book.getPrice());
+    }
+
+    @Test
+    void importCsvReportsBadPriceWithLineNumber() throws Exception {
+        var content = "name,author,description,price\nBook1,Author1,Description1,ten\n";
+
+        var report = bookImportService.importBooks(BookFileFormat.CSV, body(content));
+
+        assertEquals(0, report.getImported());
+        assertEquals("Line 2: Invalid price: ten", report.getBatches().get(0).getErrors().get(0));
+        verify(bookRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void failingBatchIsReportedAndImportContinues() throws Exception {
+        when(bookRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        var content = "name,author,description,price\n" +
+                "Book1,Author1,Description1,10\nBook2,Author2,Description2,20\nBook3,Author3,Description3,30\n";
+
+        var report = bookImportService.importBooks(BookFileFormat.CSV, body(content));
+
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals("Batch rejected: duplicate", report.getBatches().get(0).getErrors().get(0));
+        assertEquals(1, report.getBatches().get(1).getImported());
+    }
+
+    @Test
+    void csvWithoutRequiredColumnIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookImportService.importBooks(BookFileFormat.CSV, body("name,author\nBook1,Author1\n")));
+    }
+}
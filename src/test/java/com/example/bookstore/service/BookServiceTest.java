@@ -1,18 +1,36 @@
 package com.example.bookstore.service;
 
+import com.example.bookstore.dto.book.AuthorCountDTO;
 import com.example.bookstore.dto.book.BookDTO;
+import com.example.bookstore.dto.book.FacetsDTO;
 import com.example.bookstore.dto.book.InsertBookDTO;
+import com.example.bookstore.dto.book.PriceBucketDTO;
 import com.example.bookstore.entity.Book;
+import com.example.bookstore.dto.book.BookPatchDTO;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.exception.CustomException;
 import com.example.bookstore.factory.BookFactory;
+import com.example.bookstore.index.BookSearchIndex;
+import com.example.bookstore.index.CatalogFilter;
+import com.example.bookstore.index.ColumnarCatalog;
+import com.example.bookstore.index.FacetIndex;
+import com.example.bookstore.index.PriceBuckets;
+import com.example.bookstore.index.PriceIndex;
+import com.example.bookstore.index.Suggestion;
+import com.example.bookstore.index.TypeaheadIndex;
+import com.example.bookstore.mapper.DtoMapper;
+import com.example.bookstore.repository.BookPatch;
 import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.repository.BookSummary;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.*;
 
@@ -30,50 +48,72 @@ class BookServiceTest {
     @Mock
     BookRepository bookRepository;
     @Mock
-    ModelMapper modelMapper;
+    DtoMapper dtoMapper;
     @Mock
     UserService userService;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    BookSearchIndex bookSearchIndex;
+    @Mock
+    PriceIndex priceIndex;
+    @Mock
+    TypeaheadIndex typeaheadIndex;
+    @Mock
+    FacetIndex facetIndex;
+    @Mock
+    ColumnarCatalog columnarCatalog;
+    @Mock
+    BookDescriptionStore descriptionStore;
+    @Mock
+    PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     BookService bookService;
 
     @BeforeEach
     void init() {
-        bookService = new BookService(bookRepository,modelMapper,userService);
+        bookService = new BookService(bookRepository, dtoMapper, userService, eventPublisher, bookSearchIndex, priceIndex,
+                typeaheadIndex, facetIndex, columnarCatalog, new BookCache(bookRepository, 100, 60, false), descriptionStore, transactionManager, 2, 3, 4);
+    }
+
+    // Summaries of the factory books, with ids so that their pages can carry a cursor
+    private static List<BookSummary> summaries() {
+        return BookFactory.createBooks().stream()
+                .map(book -> new BookSummary(UUID.randomUUID(), book.getName(), book.getAuthor(), book.getPrice()))
+                .toList();
     }
 
     @Test
     void getAllBooksSuccess() {
-        List<Book> books = BookFactory.createBooks();
+        List<BookSummary> books = summaries();
 
-        when(bookRepository.findAll()).thenReturn(books);
-        var result = bookService.getAllBooks();
+        when(bookRepository.findPageOrderByName(Pageable.ofSize(3))).thenReturn(books.subList(0, 3));
+        var result = bookService.getAllBooks(null, null);
 
-        assertEquals(4, result.size());
-        assertEquals("Book1", result.get(0).getName());
-        assertEquals("Author1", result.get(0).getAuthor());
-        assertEquals("Description1", result.get(0).getDescription());
-        assertEquals(10.00, result.get(0).getPrice());
+        assertEquals(2, result.getItems().size());
+        assertEquals("Book1", result.getItems().get(0).name());
+        assertEquals("Author1", result.getItems().get(0).author());
+        assertEquals(10.00, result.getItems().get(0).price());
 
-        assertEquals("Book2", result.get(1).getName());
-        assertEquals("Book2", result.get(1).getName());
-        assertEquals("Author2", result.get(1).getAuthor());
-        assertEquals("Description2", result.get(1).getDescription());
-        assertEquals(20.00, result.get(1).getPrice());
+        assertEquals("Book2", result.getItems().get(1).name());
+        assertEquals("Author2", result.getItems().get(1).author());
+        assertEquals(20.00, result.getItems().get(1).price());
+        assertNotNull(result.getNextCursor());
     }
 
     @Test
     public void testSaveBook() {
         InsertBookDTO insertBookDTO = new InsertBookDTO();
         Book book = new Book();
-        when(modelMapper.map(insertBookDTO, Book.class)).thenReturn(book);
+        when(dtoMapper.toEntity(insertBookDTO)).thenReturn(book);
         when(bookRepository.saveAndFlush(book)).thenReturn(book);
 
         Book savedBook = bookService.saveBook(insertBookDTO);
 
         assertNotNull(savedBook);
-        verify(modelMapper, times(1)).map(insertBookDTO, Book.class);
+        verify(dtoMapper, times(1)).toEntity(insertBookDTO);
         verify(bookRepository, times(1)).saveAndFlush(book);
+        verify(eventPublisher, times(1)).publishEvent(BooksChangedEvent.saved(book));
     }
 
     @Test
@@ -86,6 +126,7 @@ class BookServiceTest {
 
         assertTrue(retrievedBook.isPresent());
         verify(bookRepository, times(1)).findById(bookId);
+        verify(typeaheadIndex).recordView(bookId);
     }
 
     @Test
@@ -93,27 +134,29 @@ class BookServiceTest {
         UUID bookId = UUID.randomUUID();
         InsertBookDTO updatedBookDTO = new InsertBookDTO();
         updatedBookDTO.setName("Updated Book");
-        updatedBookDTO.setAuthor("Updated Author");
-        updatedBookDTO.setDescription("Updated Description");
         updatedBookDTO.setPrice(20.00);
 
-        Book existingBook = new Book();
-        existingBook.setId(bookId);
-        existingBook.setName("Existing Book");
-        existingBook.setAuthor("Existing Author");
-        existingBook.setDescription("Existing Description");
-        existingBook.setPrice(10.00);
+        Book updated = BookFactory.createBook("Updated Book", "Existing Author", "Existing Description", 20.00);
+        updated.setId(bookId);
+        updated.setVersion(4L);
 
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(existingBook));
-        when(bookRepository.save(any(Book.class))).thenReturn(existingBook);
+        when(bookRepository.updatePartially(List.of(new BookPatch(bookId, 3L, "Updated Book", null, null, 20.00))))
+                .thenReturn(new int[]{1});
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(updated));
 
-        Optional<Book> updatedBook = bookService.updateBookById(bookId, updatedBookDTO);
+        Optional<Book> updatedBook = bookService.updateBookById(bookId, updatedBookDTO, 3L);
 
         assertTrue(updatedBook.isPresent());
-        assertEquals(updatedBookDTO.getName(), updatedBook.get().getName());
-        assertEquals(updatedBookDTO.getAuthor(), updatedBook.get().getAuthor());
-        assertEquals(updatedBookDTO.getDescription(), updatedBook.get().getDescription());
-        assertEquals(updatedBookDTO.getPrice(), updatedBook.get().getPrice());
+        assertEquals("Updated Book", updatedBook.get().getName());
+        assertEquals("Existing Author", updatedBook.get().getAuthor());
+        assertEquals(4L, updatedBook.get().getVersion());
+        verify(bookRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(BooksChangedEvent.saved(updated));
+        // The new version is read before the transaction commits, while the row is still locked
+        var inOrder = inOrder(bookRepository, transactionManager);
+        inOrder.verify(bookRepository).updatePartially(anyList());
+        inOrder.verify(bookRepository).findById(bookId);
+        inOrder.verify(transactionManager).commit(any());
     }
 
     @Test
@@ -122,6 +165,7 @@ class BookServiceTest {
         InsertBookDTO updatedBookDto = new InsertBookDTO();
 
         updatedBookDto.setName("Updated Title");
+        when(bookRepository.updatePartially(anyList())).thenReturn(new int[]{0});
 
         EntityNotFoundException entityNotFoundException = assertThrows(EntityNotFoundException.class, () -> {
             bookService.updateBookById(invalidBookId, updatedBookDto);
@@ -131,6 +175,21 @@ class BookServiceTest {
         verify(bookRepository, never()).save(any());
     }
 
+    @Test
+    public void testUpdateBookById_VersionConflict() {
+        UUID bookId = UUID.randomUUID();
+        InsertBookDTO updatedBookDto = new InsertBookDTO();
+        updatedBookDto.setName("Updated Title");
+        when(bookRepository.updatePartially(anyList())).thenReturn(new int[]{0});
+        when(bookRepository.findIdsByIdIn(List.of(bookId))).thenReturn(List.of(bookId));
+
+        CustomException customException = assertThrows(CustomException.class,
+                () -> bookService.updateBookById(bookId, updatedBookDto, 1L));
+
+        assertEquals(409, customException.getHttpStatus());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     public void testUpdateBookById_NullId() {
         InsertBookDTO updatedBookDto = new InsertBookDTO();
@@ -149,23 +208,17 @@ class BookServiceTest {
         Book book1 = BookFactory.createBook("Java Basic", "Herbert Schildt", "Java for beginners", 35.00);
         Book book2 = BookFactory.createBook("Java Advanced", "Bruce Eckel", "Java for advanced programmers", 45.00);
         Book book3 = BookFactory.createBook("test", "Bruce Eckel", "test for advanced programmers", 45.00);
-        Book book4 = BookFactory.createBook("Clean Code", "Robert C. Martin", "A Handbook of Agile Software Craftsmanship", 50.00);
-
-        List<Book> booksContainingJava = Arrays.asList(book1, book2);
-        List<Book> booksContainingTest = List.of(book3);
-        List<Book> allBooks = Arrays.asList(book1, book2, book3, book4);
 
-        when(bookRepository.findByNameContaining("Java")).thenReturn(booksContainingJava);
-        when(bookRepository.findByNameContaining("test")).thenReturn(booksContainingTest);
-        when(bookRepository.findByNameContaining("")).thenReturn(allBooks); // all books
+        when(bookRepository.findPageByNameContaining("%Java%", Pageable.ofSize(3)))
+                .thenReturn(List.of(BookSummary.of(book2), BookSummary.of(book1)));
+        when(bookRepository.findPageByNameContaining("%test%", Pageable.ofSize(3))).thenReturn(List.of(BookSummary.of(book3)));
 
-        List<Book> actualBooksContainingJava = bookService.findBooksByNameContaining("Java");
-        List<Book> actualBooksContainingTest = bookService.findBooksByNameContaining("test");
-        List<Book> actualAllBooks = bookService.findBooksByNameContaining("");
+        var actualBooksContainingJava = bookService.findBooksByNameContaining("Java", null, null);
+        var actualBooksContainingTest = bookService.findBooksByNameContaining("test", null, null);
 
-        assertEquals(2, actualBooksContainingJava.size());
-        assertEquals(1, actualBooksContainingTest.size());
-        assertEquals(4, actualAllBooks.size());
+        assertEquals(2, actualBooksContainingJava.getItems().size());
+        assertNull(actualBooksContainingJava.getNextCursor());
+        assertEquals(1, actualBooksContainingTest.getItems().size());
     }
 
     @Test
@@ -173,10 +226,12 @@ class BookServiceTest {
         Book book = new Book();
         UUID bookId = UUID.randomUUID();
 
-        lenient().when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookRepository.deleteAllByIdIn(List.of(bookId))).thenReturn(1);
         bookService.deleteById(bookId);
 
-        verify(bookRepository, times(1)).deleteById(bookId);
+        verify(bookRepository, times(1)).deleteAllByIdIn(List.of(bookId));
+        verify(bookRepository, never()).findById(any());
+        verify(eventPublisher, times(1)).publishEvent(BooksChangedEvent.deleted(bookId));
     }
 
     @Test
@@ -185,7 +240,7 @@ class BookServiceTest {
             bookService.deleteById(null);
         });
 
-        verify(bookRepository, never()).deleteById(null);
+        verify(bookRepository, never()).deleteAllByIdIn(any());
     }
 
     @Test
@@ -205,40 +260,38 @@ class BookServiceTest {
     @Test
     public void testFindBooksByAuthorContaining() {
         Book book1 = BookFactory.createBook("Java Basic", "Test", "Java for beginners", 35.00);
-        Book book2 = BookFactory.createBook("Java Advanced", "Bruce Eckel", "Java for advanced programmers", 45.00);
-        Book book3 = BookFactory.createBook("Test", "Test", "test for advanced programmers", 45.00);
-        Book book4 = BookFactory.createBook("Clean Code", "Robert C. Martin", "A Handbook of Agile Software Craftsmanship", 50.00);
-        Book book5 = BookFactory.createBook("Java Basic", "Bruce Eckel", "Java for beginner programmers", 35.00);
-
-        List<Book> booksContainingTestAuthor = Arrays.asList(book1, book5);
+        Book book5 = BookFactory.createBook("Test", "Test", "test for advanced programmers", 45.00);
 
-        when(bookRepository.findByAuthorContaining("Test")).thenReturn(booksContainingTestAuthor);
+        when(bookRepository.findPageByAuthorContaining("%Test%", Pageable.ofSize(3)))
+                .thenReturn(List.of(BookSummary.of(book1), BookSummary.of(book5)));
 
-        List<Book> actualBooksContainingTestAuthor = bookService.findBooksByAuthorContaining("Test");
+        var actualBooksContainingTestAuthor = bookService.findBooksByAuthorContaining("Test", null, null);
 
-        assertEquals(2, booksContainingTestAuthor.size());
+        assertEquals(2, actualBooksContainingTestAuthor.getItems().size());
     }
 
     @Test
     public void testFindBooksByOrderByPriceAsc() {
-        List<Book> books = BookFactory.createBooks();
+        List<BookSummary> books = summaries();
 
-        when(bookRepository.findAllByOrderByPriceAsc()).thenReturn(books);
+        when(bookRepository.findPageOrderByPriceAsc(Pageable.ofSize(3))).thenReturn(books.subList(0, 2));
 
-        List<Book> actualBooks = bookService.findBooksByOrderByPriceAsc();
+        var actualBooks = bookService.findBooksByOrderByPriceAsc(null, null);
 
-        assertEquals(books, actualBooks);
+        assertEquals(books.subList(0, 2), actualBooks.getItems());
+        assertNull(actualBooks.getNextCursor());
     }
 
     @Test
     public void testFindBooksByOrderByPriceDesc() {
-        List<Book> books = BookFactory.createBooks();
+        List<BookSummary> books = summaries().reversed();
 
-        when(bookRepository.findAllByOrderByPriceDesc()).thenReturn(books);
+        when(bookRepository.findPageOrderByPriceDesc(Pageable.ofSize(3))).thenReturn(books.subList(0, 3));
 
-        List<Book> actualBooks = bookService.findBooksByOrderByPriceDesc();
+        var actualBooks = bookService.findBooksByOrderByPriceDesc(null, null);
 
-        assertEquals(books, actualBooks);
+        assertEquals(books.subList(0, 2), actualBooks.getItems());
+        assertNotNull(actualBooks.getNextCursor());
     }
 
     @Test
@@ -255,9 +308,350 @@ class BookServiceTest {
         expectedBookDTO.setDescription("Test Description");
         expectedBookDTO.setPrice(10.00);
 
-        when(modelMapper.map(book, BookDTO.class)).thenReturn(expectedBookDTO);
+        when(dtoMapper.toDTO(book)).thenReturn(expectedBookDTO);
         BookDTO actualBookDTO = bookService.mapToDTO(book);
 
         assertEquals(expectedBookDTO, actualBookDTO);
     }
+
+    @Test
+    public void testGetAllBooksFirstPageHasNextCursor() {
+        List<Book> entities = BookFactory.createBooks().subList(0, 3);
+        entities.forEach(book -> book.setId(UUID.randomUUID()));
+        List<BookSummary> books = entities.stream().map(BookSummary::of).toList();
+
+        when(bookRepository.findPageOrderByName(Pageable.ofSize(3))).thenReturn(books);
+        var page = bookService.getAllBooks(null, null);
+
+        assertEquals(2, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+        BookCursor cursor = BookCursor.decode(page.getNextCursor(), BookCursor.BY_NAME);
+        assertEquals(books.get(1).name(), cursor.name());
+        assertEquals(books.get(1).id(), cursor.id());
+    }
+
+    @Test
+    public void testGetAllBooksWithCursorContinuesAfterLastRow() {
+        Book last = BookFactory.createBook("Book2", "Author2", "Description2", 20.00);
+        last.setId(UUID.randomUUID());
+        String cursor = BookCursor.byName(BookSummary.of(last)).encode();
+        List<BookSummary> books = List.of(BookSummary.of(BookFactory.createBook("Java Basic", "Herbert Schildt", "Java for beginners", 35.00)));
+
+        when(bookRepository.findPageOrderByNameAfter("Book2", last.getId(), Pageable.ofSize(3))).thenReturn(books);
+        var page = bookService.getAllBooks(cursor, null);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testFindBooksByOrderByPriceAscPageSizeIsCapped() {
+        when(bookRepository.findPageOrderByPriceAsc(Pageable.ofSize(4))).thenReturn(List.of());
+
+        var page = bookService.findBooksByOrderByPriceAsc(null, 1000);
+
+        assertEquals(0, page.getSize());
+        verify(bookRepository, times(1)).findPageOrderByPriceAsc(Pageable.ofSize(4));
+    }
+
+    @Test
+    public void testCursorOfAnotherSortIsRejected() {
+        Book book = BookFactory.createBook("Book1", "Author1", "Description1", 10.00);
+        book.setId(UUID.randomUUID());
+        String priceCursor = BookCursor.byPrice(BookCursor.BY_PRICE_ASC, BookSummary.of(book)).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.getAllBooks(priceCursor, null));
+        assertThrows(IllegalArgumentException.class, () -> bookService.getAllBooks("not-a-cursor", null));
+    }
+
+    @Test
+    public void testFindBooksByNameContainingUsesIndexWhenReady() {
+        Book book1 = BookFactory.createBook("Java Advanced", "Bruce Eckel", "Java for advanced programmers", 45.00);
+        Book book2 = BookFactory.createBook("Java Basic", "Herbert Schildt", "Java for beginners", 35.00);
+        book1.setId(UUID.randomUUID());
+        book2.setId(UUID.randomUUID());
+
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search(BookSearchIndex.Field.NAME, "Java", null, null, 3))
+                .thenReturn(List.of(book1.getId(), book2.getId()));
+        when(bookRepository.findSummariesByIdIn(List.of(book1.getId(), book2.getId())))
+                .thenReturn(List.of(BookSummary.of(book2), BookSummary.of(book1)));
+        var page = bookService.findBooksByNameContaining("Java", null, null);
+
+        assertEquals(List.of(BookSummary.of(book1), BookSummary.of(book2)), page.getItems());
+        assertNull(page.getNextCursor());
+        verify(bookRepository, never()).findPageByNameContaining(anyString(), any());
+    }
+
+    @Test
+    public void testFindBooksByNameContainingReadsThePageFromTheDatabaseWhenTheIndexListsADeletedBook() {
+        var books = summaries();
+        var deletedId = UUID.randomUUID();
+        var ids = List.of(books.get(0).id(), deletedId, books.get(1).id());
+
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search(BookSearchIndex.Field.NAME, "Book", null, null, 3)).thenReturn(ids);
+        when(bookRepository.findSummariesByIdIn(ids)).thenReturn(List.of(books.get(0), books.get(1)));
+        when(bookRepository.findPageByNameContaining("%Book%", Pageable.ofSize(3))).thenReturn(books.subList(0, 3));
+        var page = bookService.findBooksByNameContaining("Book", null, null);
+
+        assertEquals(books.subList(0, 2), page.getItems());
+        assertNotNull(page.getNextCursor());
+        assertEquals(books.get(1).id(), BookCursor.decode(page.getNextCursor(), BookCursor.BY_NAME).id());
+    }
+
+    @Test
+    public void testFindBooksByAuthorContainingFallsBackToDatabaseWhileIndexWarms() {
+        when(bookSearchIndex.isReady()).thenReturn(false);
+        when(bookRepository.findPageByAuthorContaining("%Eckel%", Pageable.ofSize(3))).thenReturn(List.of());
+
+        bookService.findBooksByAuthorContaining("Eckel", null, null);
+
+        verify(bookSearchIndex, never()).search(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testFindBooksByNameContainingEscapesWildcardsForTheDatabase() {
+        when(bookSearchIndex.isReady()).thenReturn(false);
+        when(bookRepository.findPageByNameContaining("%100\\%%", Pageable.ofSize(3))).thenReturn(List.of());
+
+        bookService.findBooksByNameContaining("100%", null, null);
+
+        verify(bookRepository).findPageByNameContaining("%100\\%%", Pageable.ofSize(3));
+    }
+
+    @Test
+    public void testFindBooksByOrderByPriceDescUsesIndexWhenReady() {
+        Book book1 = BookFactory.createBook("Book1", "Author1", "Description1", 10.00);
+        Book book2 = BookFactory.createBook("Book2", "Author2", "Description2", 20.00);
+        Book book3 = BookFactory.createBook("Java Basic", "Herbert Schildt", "Java for beginners", 35.00);
+        List.of(book1, book2, book3).forEach(book -> book.setId(UUID.randomUUID()));
+        var ids = List.of(book3.getId(), book2.getId(), book1.getId());
+
+        when(priceIndex.isReady()).thenReturn(true);
+        when(priceIndex.descending(0, null, 3)).thenReturn(ids);
+        when(bookRepository.findSummariesByIdIn(ids))
+                .thenReturn(List.of(BookSummary.of(book1), BookSummary.of(book2), BookSummary.of(book3)));
+        var page = bookService.findBooksByOrderByPriceDesc(null, null);
+
+        assertEquals(List.of(BookSummary.of(book3), BookSummary.of(book2)), page.getItems());
+        BookCursor cursor = BookCursor.decode(page.getNextCursor(), BookCursor.BY_PRICE_DESC);
+        assertEquals(20.00, cursor.price());
+        assertEquals(book2.getId(), cursor.id());
+    }
+
+    @Test
+    public void testFindBooksByOrderByPriceAscListsBooksWithoutPriceAfterTheIndexedOnes() {
+        var priced = new BookSummary(UUID.randomUUID(), "Book1", "Author1", 10.00);
+        var unpriced1 = new BookSummary(UUID.randomUUID(), "Book2", "Author2", null);
+        var unpriced2 = new BookSummary(UUID.randomUUID(), "Book3", "Author3", null);
+
+        when(priceIndex.isReady()).thenReturn(true);
+        when(priceIndex.ascending(0, null, 3)).thenReturn(List.of(priced.id()));
+        when(bookRepository.findSummariesByIdIn(List.of(priced.id()))).thenReturn(List.of(priced));
+        when(bookRepository.findPageWithoutPrice(Pageable.ofSize(2))).thenReturn(List.of(unpriced1, unpriced2));
+        var first = bookService.findBooksByOrderByPriceAsc(null, null);
+
+        assertEquals(List.of(priced, unpriced1), first.getItems());
+        assertTrue(BookCursor.decode(first.getNextCursor(), BookCursor.BY_PRICE_ASC).inNullTail());
+
+        when(bookRepository.findPageWithoutPriceAfter(unpriced1.id(), Pageable.ofSize(3))).thenReturn(List.of(unpriced2));
+        var second = bookService.findBooksByOrderByPriceAsc(first.getNextCursor(), null);
+
+        assertEquals(List.of(unpriced2), second.getItems());
+        assertNull(second.getNextCursor());
+        verify(priceIndex, never()).ascending(anyDouble(), eq(unpriced1.id()), anyInt());
+    }
+
+    @Test
+    public void testFindBooksByPriceBetweenFallsBackToDatabase() {
+        Book book = BookFactory.createBook("Book2", "Author2", "Description2", 20.00);
+        when(priceIndex.isReady()).thenReturn(false);
+        when(bookRepository.findPageByPriceBetween(10.0, 30.0, 4, 2)).thenReturn(List.of(BookSummary.of(book)));
+        when(bookRepository.countByPriceBetween(10.0, 30.0)).thenReturn(5L);
+
+        var page = bookService.findBooksByPriceBetween(10.0, 30.0, 4, null);
+
+        assertEquals(List.of(BookSummary.of(book)), page.getItems());
+        assertEquals(4, page.getOffset());
+        assertEquals(5L, page.getTotal());
+    }
+
+    @Test
+    public void testFindBooksByPriceBetweenRejectsInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.findBooksByPriceBetween(30.0, 10.0, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> bookService.findBooksByPriceBetween(10.0, 30.0, -1, null));
+    }
+
+    @Test
+    public void testSuggestUsesTypeaheadIndexWhenReady() {
+        var suggestions = List.of(new Suggestion("Java Basic", BookSearchIndex.Field.NAME, 3));
+        when(typeaheadIndex.isReady()).thenReturn(true);
+        when(typeaheadIndex.suggest("jav", BookService.MAX_SUGGESTIONS)).thenReturn(suggestions);
+
+        assertEquals(suggestions, bookService.suggest("jav", 500));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testSuggestFallsBackToGroupedQueriesWhileIndexWarms() {
+        when(typeaheadIndex.isReady()).thenReturn(false);
+        when(bookRepository.countNamesStartingWith("ja", Pageable.ofSize(2)))
+                .thenReturn(List.<Object[]>of(new Object[]{"Java Basic", 1L}, new Object[]{"Jaws", 1L}));
+        when(bookRepository.countAuthorsStartingWith("ja", Pageable.ofSize(2)))
+                .thenReturn(List.<Object[]>of(new Object[]{"James Joyce", 4L}));
+
+        var suggestions = bookService.suggest("Ja", 2);
+
+        assertEquals(List.of(new Suggestion("James Joyce", BookSearchIndex.Field.AUTHOR, 4),
+                new Suggestion("Java Basic", BookSearchIndex.Field.NAME, 1)), suggestions);
+    }
+
+    @Test
+    public void testSuggestIgnoresBlankPrefix() {
+        assertTrue(bookService.suggest(" ", null).isEmpty());
+        verifyNoInteractions(typeaheadIndex, bookRepository);
+    }
+
+    @Test
+    public void testGetFacetsOfTheCatalogComesFromTheFacetIndex() {
+        var facets = new FacetsDTO();
+        when(facetIndex.isReady()).thenReturn(true);
+        when(facetIndex.facets(3)).thenReturn(facets);
+
+        assertSame(facets, bookService.getFacets(null, null, null, null, 10));
+        verifyNoInteractions(columnarCatalog, bookRepository);
+    }
+
+    @Test
+    public void testGetFacetsOfASearchScansTheColumnarCatalog() {
+        var facets = new FacetsDTO();
+        when(columnarCatalog.isReady()).thenReturn(true);
+        when(columnarCatalog.facets(new CatalogFilter(null, "Eckel", 20.0, null), 3)).thenReturn(facets);
+
+        assertSame(facets, bookService.getFacets(null, "Eckel", 20.0, null, 10));
+        verifyNoInteractions(facetIndex, bookRepository);
+    }
+
+    @Test
+    public void testGetFacetsFallsBackToOneGroupedQuery() {
+        when(columnarCatalog.isReady()).thenReturn(false);
+        when(facetIndex.priceBuckets()).thenReturn(new PriceBuckets(new double[]{20.0}));
+        when(bookRepository.countByAuthorAndPriceBucket(new double[]{20.0}, "%Java\\_%", null, 5.0, null)).thenReturn(List.of(
+                new Object[]{"Bruce Eckel", 1, 2L, 45.0, 50.0},
+                new Object[]{"Herbert Schildt", 1, 1L, 35.0, 35.0},
+                new Object[]{"Herbert Schildt", 0, 1L, 10.0, 10.0},
+                new Object[]{"Herbert Schildt", -1, 1L, null, null}));
+
+        var facets = bookService.getFacets("Java_", null, 5.0, null, null);
+
+        assertEquals(5, facets.getTotal());
+        assertEquals(10.0, facets.getMinPrice());
+        assertEquals(50.0, facets.getMaxPrice());
+        assertEquals(List.of(new AuthorCountDTO("Herbert Schildt", 3), new AuthorCountDTO("Bruce Eckel", 2)), facets.getAuthors());
+        assertEquals(List.of(new PriceBucketDTO(null, 20.0, 1), new PriceBucketDTO(20.0, null, 3)), facets.getPriceBuckets());
+    }
+
+    @Test
+    public void testGetFacetsRejectsAnEmptyPriceRange() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.getFacets(null, null, 30.0, 20.0, null));
+    }
+
+    @Test
+    public void testGetBooksByIdsKeepsOrderAndReportsMissing() {
+        Book book1 = BookFactory.createBook("Book1", "Author1", "Description1", 10.00);
+        Book book2 = BookFactory.createBook("Book2", "Author2", "Description2", 20.00);
+        book1.setId(UUID.randomUUID());
+        book2.setId(UUID.randomUUID());
+        UUID missingId = UUID.randomUUID();
+        when(bookRepository.findAllByIdIn(anyCollection())).thenReturn(List.of(book1, book2));
+
+        var result = bookService.getBooksByIds(List.of(book2.getId(), missingId, book1.getId(), book2.getId()));
+
+        assertEquals(List.of(book2, book1), result.getBooks());
+        assertEquals(List.of(missingId), result.getMissingIds());
+        verify(userService, times(1)).getAuthenticatedUser();
+        verify(bookRepository, times(1)).findAllByIdIn(anyCollection());
+    }
+
+    @Test
+    public void testGetBooksByIdsRejectsTooManyIds() {
+        var ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.getBooksByIds(ids));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testPatchBooksAppliesAllInOneTransaction() {
+        Book book1 = BookFactory.createBook("Book1", "Author1", "Description1", 10.00);
+        Book book2 = BookFactory.createBook("Book2", "Author2", "Description2", 25.00);
+        book1.setId(UUID.randomUUID());
+        book2.setId(UUID.randomUUID());
+        var patches = List.of(new BookPatchDTO(book2.getId(), 1L, null, null, null, 25.00),
+                new BookPatchDTO(book1.getId(), null, "Book1", null, null, null));
+        when(bookRepository.updatePartially(anyList())).thenReturn(new int[]{1, 1});
+        when(bookRepository.findAllByIdIn(List.of(book2.getId(), book1.getId()))).thenReturn(List.of(book1, book2));
+
+        var books = bookService.patchBooks(patches);
+
+        assertEquals(List.of(book2, book1), books);
+        verify(transactionManager).commit(any());
+        verify(eventPublisher).publishEvent(BooksChangedEvent.saved(List.of(book2, book1)));
+    }
+
+    @Test
+    public void testPatchBooksRollsBackOnConflict() {
+        UUID bookId1 = UUID.randomUUID();
+        UUID bookId2 = UUID.randomUUID();
+        var patches = List.of(new BookPatchDTO(bookId1, 1L, "New", null, null, null),
+                new BookPatchDTO(bookId2, 7L, "Newer", null, null, null));
+        when(bookRepository.updatePartially(anyList())).thenReturn(new int[]{1, 0});
+        when(bookRepository.findIdsByIdIn(List.of(bookId2))).thenReturn(List.of(bookId2));
+
+        CustomException customException = assertThrows(CustomException.class, () -> bookService.patchBooks(patches));
+
+        assertEquals(409, customException.getHttpStatus());
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testPatchBooksRejectsDuplicateIds() {
+        UUID bookId = UUID.randomUUID();
+        var patches = List.of(new BookPatchDTO(bookId, null, "A", null, null, null),
+                new BookPatchDTO(bookId, null, "B", null, null, null));
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.patchBooks(patches));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testDeleteByAuthorDeletesInChunks() {
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < BookService.DELETE_CHUNK_SIZE + 1; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        when(bookRepository.findIdsByAuthor("Author1")).thenReturn(ids);
+        when(bookRepository.deleteAllByIdIn(anyCollection())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+
+        var report = bookService.deleteByAuthor("Author1");
+
+        assertEquals(ids.size(), report.getRequested());
+        assertEquals(ids.size(), report.getDeleted());
+        verify(bookRepository, times(2)).deleteAllByIdIn(anyCollection());
+        verify(eventPublisher).publishEvent(BooksChangedEvent.deleted(ids));
+    }
+
+    @Test
+    public void testDeleteByIdsReportsMissingBooks() {
+        UUID bookId1 = UUID.randomUUID();
+        UUID bookId2 = UUID.randomUUID();
+        when(bookRepository.deleteAllByIdIn(List.of(bookId1, bookId2))).thenReturn(1);
+
+        var report = bookService.deleteByIds(List.of(bookId1, bookId2, bookId1));
+
+        assertEquals(2, report.getRequested());
+        assertEquals(1, report.getDeleted());
+    }
 }
@@ -0,0 +1,52 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Book;
+import com.example.bookstore.event.BooksChangedEvent;
+import com.example.bookstore.index.BookSearchIndex;
+import com.example.bookstore.index.TypeaheadIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogVersionTest {
+
+    /**
+     * Records what the search index returns at the moment the generation advances.
+     */
+    static class ObservedCatalogVersion extends CatalogVersion {
+        final List<Integer> matchesSeen = new ArrayList<>();
+        BookSearchIndex index;
+
+        @Override
+        public void onBooksChanged(BooksChangedEvent event) {
+            matchesSeen.add(index.search(BookSearchIndex.Field.NAME, "Dune", null, null, 10).size());
+            super.onBooksChanged(event);
+        }
+    }
+
+    @Test
+    void generationAdvancesOnlyAfterTheIndexesAppliedTheChange() {
+        try (var context = new AnnotationConfigApplicationContext()) {
+            // Registered first, so that only the listener order puts it behind the indexes
+            context.registerBean(ObservedCatalogVersion.class);
+            context.registerBean(BookSearchIndex.class);
+            context.registerBean(TypeaheadIndex.class);
+            context.refresh();
+            var catalogVersion = context.getBean(ObservedCatalogVersion.class);
+            catalogVersion.index = context.getBean(BookSearchIndex.class);
+            catalogVersion.index.markReady();
+            var etag = catalogVersion.etag();
+
+            context.publishEvent(BooksChangedEvent.saved(Book.builder().id(UUID.randomUUID()).name("Dune").build()));
+
+            assertEquals(List.of(1), catalogVersion.matchesSeen);
+            assertEquals(1, catalogVersion.generation());
+            assertNotEquals(etag, catalogVersion.etag());
+        }
+    }
+}
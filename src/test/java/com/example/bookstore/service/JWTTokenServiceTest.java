@@ -0,0 +1,81 @@
+package com.example.bookstore.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.bookstore.entity.Role;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.mapper.DtoMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTTokenServiceTest {
+    private static final String SECRET = "test-secret";
+
+    JWTTokenService jwtTokenService;
+
+    @BeforeEach
+    void init() {
+        jwtTokenService = new JWTTokenService(SECRET, 60_000, 100, new DtoMapperImpl());
+    }
+
+    private String generateToken(UUID userId) {
+        var user = User.builder().id(userId).username("user").password("hash").role(Role.USER).build();
+        return jwtTokenService.generateTokens(user).getToken();
+    }
+
+    @Test
+    void verifyReturnsSubjectOfValidToken() {
+        UUID userId = UUID.randomUUID();
+        String token = generateToken(userId);
+
+        var verified = jwtTokenService.verify(token);
+
+        assertTrue(verified.isPresent());
+        assertEquals(userId.toString(), verified.get().getSubject());
+        assertEquals("user", verified.get().getClaim("email").asString());
+        assertEquals(userId.toString(), jwtTokenService.getSubject(token));
+    }
+
+    @Test
+    void repeatedVerificationIsServedFromCache() {
+        String token = generateToken(UUID.randomUUID());
+
+        var first = jwtTokenService.verify(token).orElseThrow();
+        var second = jwtTokenService.verify(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = generateToken(UUID.randomUUID());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertTrue(jwtTokenService.validate(token));
+        assertFalse(jwtTokenService.validate(tampered));
+        assertFalse(jwtTokenService.validate(null));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = JWT.create().withSubject(UUID.randomUUID().toString())
+                .withExpiresAt(new Date(System.currentTimeMillis() - 1000))
+                .sign(Algorithm.HMAC512(SECRET));
+
+        assertFalse(jwtTokenService.validate(token));
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        String token = JWT.create().withSubject(UUID.randomUUID().toString())
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC512("another-secret"));
+
+        assertFalse(jwtTokenService.validate(token));
+    }
+}
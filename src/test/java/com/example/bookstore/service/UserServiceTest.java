@@ -3,22 +3,24 @@ package com.example.bookstore.service;
 import com.example.bookstore.entity.Book;
 import com.example.bookstore.entity.Role;
 import com.example.bookstore.entity.User;
+import com.example.bookstore.exception.CustomException;
 import com.example.bookstore.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * @author oksanapoliakova on 19.03.2024
@@ -30,12 +32,16 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private UserService userService;
 
     @BeforeEach
     void init() {
-        userService = new UserService(userRepository);
+        userService = new UserService(userRepository, 100, 60);
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -62,4 +68,65 @@ class UserServiceTest {
         assertEquals(noSuchElementException.getMessage(), "No value present");
     }
 
+    @Test
+    void getUserByIdIsCachedForIdAndUsername() {
+        UUID userId = UUID.randomUUID();
+        User user = User.builder().id(userId).username("user").password("hash").role(Role.USER).build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        assertSame(user, userService.getUserById(userId));
+        assertSame(user, userService.getUserById(userId));
+        assertSame(user, userService.getUserByUsername("user"));
+        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void evictForcesReload() {
+        UUID userId = UUID.randomUUID();
+        User user = User.builder().id(userId).username("user").password("hash").role(Role.USER).build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userService.getUserById(userId);
+        userService.evict(user);
+        userService.getUserById(userId);
+
+        verify(userRepository, times(2)).findById(userId);
+    }
+
+    @Test
+    void getAuthenticatedUserReusesPrincipal() {
+        User user = User.builder().id(UUID.randomUUID()).username("user").password("hash").role(Role.USER).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        assertSame(user, userService.getAuthenticatedUser());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getAuthenticatedUserWithoutAuthenticationIsForbidden() {
+        CustomException customException = assertThrows(CustomException.class, () -> userService.getAuthenticatedUser());
+
+        assertEquals(403, customException.getHttpStatus());
+    }
+
+    @Test
+    void updatePasswordStoresTheNewHashAndEvicts() {
+        UUID userId = UUID.randomUUID();
+        User user = User.builder().id(userId).username("user").password("old").role(Role.USER).build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        userService.getUserById(userId);
+
+        var updated = userService.updatePassword(user, "new");
+
+        assertEquals("new", updated.getPassword());
+        verify(userRepository).save(user);
+        userService.getUserById(userId);
+        verify(userRepository, times(2)).findById(userId);
+    }
 }